@@ -0,0 +1,55 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.ClientOrderManager;
+import com.restaurant.model.order.Order;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Coût de l'historique d'un client et de tous les historiques
+ * en fonction de la taille de client_orders.txt (1000 clients)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ClientOrderManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int orderCount;
+
+    private ClientOrderManager manager;
+    private String clientEmail;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = SyntheticData.prepareDataDir();
+        SyntheticData.writeClientOrders(dir, orderCount);
+        manager = ClientOrderManager.getInstance();
+        clientEmail = SyntheticData.clientEmail(SyntheticData.CLIENT_COUNT / 2);
+    }
+
+    @Benchmark
+    public List<Order> loadClientOrders() {
+        return manager.loadClientOrders(clientEmail);
+    }
+
+    @Benchmark
+    public Map<String, List<Order>> loadAllClientOrders() {
+        return manager.loadAllClientOrders();
+    }
+
+    @Benchmark
+    public long forEachClientOrder() {
+        LongAdder total = new LongAdder();
+        manager.forEachClientOrder((email, order) -> total.add(order.getTotalCents()));
+        return total.sum();
+    }
+}
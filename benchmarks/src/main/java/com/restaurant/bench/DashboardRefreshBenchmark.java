@@ -0,0 +1,82 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.order.Order;
+import com.restaurant.model.order.OrderItem;
+import com.restaurant.model.payment.CashPaymentStrategy;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rafraîchissement du dashboard admin (textes des commandes en attente et de
+ * l'historique, comme AdminView) : copies défensives contre vues sans copie
+ *
+ * Lancer avec le profileur GC pour comparer les allocations :
+ * java -jar target/benchmarks.jar DashboardRefreshBenchmark -prof gc
+ * (gc.alloc.rate.norm = octets alloués par rafraîchissement)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DashboardRefreshBenchmark {
+
+    @Param({"1000", "100000"})
+    public int orderCount;
+
+    private List<Order> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<MenuIt> dishes = new ArrayList<>();
+        for (String dish : SyntheticData.DISHES) {
+            String[] parts = dish.split("\\|");
+            dishes.add(new MenuIt(parts[0], "", Double.parseDouble(parts[1])));
+        }
+        orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order();
+            for (int j = 0; j < 1 + i % 4; j++) {
+                order.addItem(dishes.get((i + j * 7) % dishes.size()), 1 + (i + j) % 5);
+            }
+            order.setPaymentStrategy(new CashPaymentStrategy());
+            order.processPayment();
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    public void refreshWithCopies(Blackhole blackhole) {
+        for (Order order : orders) {
+            long quantity = 0;
+            for (OrderItem item : order.getItems()) {
+                quantity += item.getQuantity();
+                blackhole.consume(item.getMenuItem().getName());
+            }
+            blackhole.consume(quantity);
+            blackhole.consume(order.getItems().size());
+        }
+    }
+
+    @Benchmark
+    public void refreshWithViews(Blackhole blackhole) {
+        for (Order order : orders) {
+            long quantity = 0;
+            for (int i = 0; i < order.getItemCount(); i++) {
+                OrderItem item = order.getItem(i);
+                quantity += item.getQuantity();
+                blackhole.consume(item.getMenuItem().getName());
+            }
+            blackhole.consume(quantity);
+            blackhole.consume(order.getItemCount());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.DeliveryNotificationManager;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Coût de l'ouverture des notifications admin
+ * en fonction de la taille de delivery_notifications.txt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class DeliveryNotificationBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int notificationCount;
+
+    private DeliveryNotificationManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = SyntheticData.prepareDataDir();
+        SyntheticData.writeNotifications(dir, notificationCount);
+        manager = DeliveryNotificationManager.getInstance();
+    }
+
+    @Benchmark
+    public List<String> getNotifications() {
+        return manager.getNotifications();
+    }
+}
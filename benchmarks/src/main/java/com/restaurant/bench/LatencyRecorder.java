@@ -0,0 +1,73 @@
+package com.restaurant.bench;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latences brutes (nanosecondes) par opération
+ *
+ * Un enregistreur par thread (aucune synchronisation pendant la mesure),
+ * fusionnés à la fin pour calculer débit et percentiles exacts.
+ */
+final class LatencyRecorder {
+    private final Map<String, Samples> samplesByOperation = new LinkedHashMap<>();
+
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+    }
+
+    void record(String operation, long nanos) {
+        samplesByOperation.computeIfAbsent(operation, key -> new Samples()).add(nanos);
+    }
+
+    void merge(LatencyRecorder other) {
+        other.samplesByOperation.forEach((operation, samples) ->
+                samplesByOperation.computeIfAbsent(operation, key -> new Samples()).addAll(samples));
+    }
+
+    /**
+     * Tableau : opération, nombre, débit (op/s sur la durée totale), p50/p99/p999 et max en µs
+     */
+    String report(long elapsedNanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %10s %12s %10s %10s %10s %10s%n",
+                "Opération", "Nombre", "Débit op/s", "p50 µs", "p99 µs", "p999 µs", "max µs"));
+        double seconds = elapsedNanos / 1e9;
+        samplesByOperation.forEach((operation, samples) -> {
+            long[] sorted = Arrays.copyOf(samples.values, samples.size);
+            Arrays.sort(sorted);
+            sb.append(String.format("%-22s %10d %12.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation, sorted.length, sorted.length / seconds,
+                    micros(percentile(sorted, 0.50)), micros(percentile(sorted, 0.99)),
+                    micros(percentile(sorted, 0.999)), micros(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+        });
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,246 @@
+package com.restaurant.bench;
+
+import com.restaurant.controller.RestaurantController;
+import com.restaurant.model.DeliveryNotificationManager;
+import com.restaurant.model.RestaurantSystem;
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.order.Order;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge sans JavaFX, de bout en bout via RestaurantController
+ *
+ * N clients enchaînent createNewOrder → addItemToOrder → setPaymentMethod →
+ * validateAndPayOrder ; des admins valident (paiement sur place) ou envoient
+ * en livraison les commandes en attente, comme AdminView ; des livreurs
+ * confirment les livraisons, comme LivreurView. Rapport : débit et
+ * p50/p99/p999 par opération ; validateAndPay inclut l'attente de la
+ * durabilité de la commande (fsync du group commit).
+ *
+ * Usage : java -cp target/benchmarks.jar com.restaurant.bench.LoadGenerator
+ *         [--clients=50] [--orders=100] [--items=3] [--admins=2] [--drivers=4]
+ */
+public class LoadGenerator {
+    private static final String[][] PAYMENTS = {
+            {"CASH", ""},
+            {"CARD", "4970101234567890"},
+            {"MOBILE", "0550123456"},
+            {"ONSITE", ""}
+    };
+    private static final long IDLE_NANOS = 100_000;
+
+    private final int clients;
+    private final int ordersPerClient;
+    private final int itemsPerOrder;
+    private final int admins;
+    private final int drivers;
+
+    private final RestaurantSystem system = RestaurantSystem.getInstance();
+    private final List<LatencyRecorder> recorders = new ArrayList<>();
+    private final Set<Integer> claimedOrders = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger placedOrders = new AtomicInteger();
+    private final AtomicInteger handledOrders = new AtomicInteger();
+    private final AtomicInteger sentToDelivery = new AtomicInteger();
+    private final AtomicInteger deliveredOrders = new AtomicInteger();
+    private volatile boolean clientsDone;
+
+    LoadGenerator(int clients, int ordersPerClient, int itemsPerOrder, int admins, int drivers) {
+        this.clients = clients;
+        this.ordersPerClient = ordersPerClient;
+        this.itemsPerOrder = itemsPerOrder;
+        this.admins = admins;
+        this.drivers = drivers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArg(args, "clients", 50);
+        int orders = intArg(args, "orders", 100);
+        int items = intArg(args, "items", 3);
+        int admins = intArg(args, "admins", 2);
+        int drivers = intArg(args, "drivers", 4);
+
+        // Les managers journalisent chaque opération sur System.out : garder la console pour le rapport
+        PrintStream console = System.out;
+        File dataDir = SyntheticData.prepareDataDir();
+        console.println("📁 Données temporaires: " + dataDir);
+        console.println("🚀 " + clients + " clients × " + orders + " commandes, " +
+                admins + " admins, " + drivers + " livreurs");
+
+        LoadGenerator generator = new LoadGenerator(clients, orders, items, admins, drivers);
+        console.print(generator.run());
+    }
+
+    String run() throws InterruptedException {
+        List<MenuIt> menuItems = new RestaurantController().getAllMenuItems();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clientThreads = new ArrayList<>();
+        List<Thread> staffThreads = new ArrayList<>();
+
+        for (int i = 0; i < clients; i++) {
+            LatencyRecorder recorder = newRecorder();
+            clientThreads.add(startThread("client-" + i, start, () -> runClient(recorder, menuItems)));
+        }
+        for (int i = 0; i < admins; i++) {
+            LatencyRecorder recorder = newRecorder();
+            staffThreads.add(startThread("admin-" + i, start, () -> runAdmin(recorder)));
+        }
+        for (int i = 0; i < drivers; i++) {
+            LatencyRecorder recorder = newRecorder();
+            String email = "livreur" + i + "@gmail.com";
+            staffThreads.add(startThread("driver-" + i, start, () -> runDriver(recorder, email)));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : clientThreads) {
+            thread.join();
+        }
+        clientsDone = true;
+        for (Thread thread : staffThreads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.forEach(total::merge);
+        return String.format("%n✅ %d commandes passées, %d traitées, %d livrées en %.2f s (%.1f commandes/s)%n",
+                placedOrders.get(), handledOrders.get(), deliveredOrders.get(),
+                elapsed / 1e9, placedOrders.get() / (elapsed / 1e9))
+                + total.report(elapsed)
+                + "📊 Statistiques: " + system.getStatistics().getPaidCount() + " payées, "
+                + system.getStatistics().getPendingCount() + " en attente, plat populaire "
+                + system.getStatistics().getPopularDish() + System.lineSeparator();
+    }
+
+    private void runClient(LatencyRecorder recorder, List<MenuIt> menuItems) {
+        RestaurantController controller = new RestaurantController();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int n = 0; n < ordersPerClient; n++) {
+            long orderStart = System.nanoTime();
+
+            long t = System.nanoTime();
+            controller.createNewOrder();
+            recorder.record("client.createNewOrder", System.nanoTime() - t);
+
+            for (int i = 0; i < itemsPerOrder; i++) {
+                MenuIt item = menuItems.get(random.nextInt(menuItems.size()));
+                t = System.nanoTime();
+                controller.addItemToOrder(item, 1 + random.nextInt(3));
+                recorder.record("client.addItemToOrder", System.nanoTime() - t);
+            }
+
+            String[] payment = PAYMENTS[random.nextInt(PAYMENTS.length)];
+            t = System.nanoTime();
+            controller.setPaymentMethod(payment[0], payment[1]);
+            recorder.record("client.setPaymentMethod", System.nanoTime() - t);
+
+            t = System.nanoTime();
+            boolean paid = controller.validateAndPayOrder();
+            long now = System.nanoTime();
+            recorder.record("client.validateAndPay", now - t);
+            recorder.record("client.orderTotal", now - orderStart);
+            if (paid) {
+                placedOrders.incrementAndGet();
+            }
+        }
+    }
+
+    private void runAdmin(LatencyRecorder recorder) {
+        while (!clientsDone || handledOrders.get() < placedOrders.get()) {
+            long t = System.nanoTime();
+            List<Order> pending = system.getPendingOrders();
+            recorder.record("admin.listPending", System.nanoTime() - t);
+
+            boolean worked = false;
+            for (Order order : pending) {
+                if (!claimedOrders.add(order.getOrderId())) {
+                    continue;
+                }
+                worked = true;
+                t = System.nanoTime();
+                if (order.isOnsitePayment()) {
+                    system.validateOrder(order);
+                    recorder.record("admin.validateOrder", System.nanoTime() - t);
+                } else {
+                    system.assignDelivery(order);
+                    recorder.record("admin.assignDelivery", System.nanoTime() - t);
+                    sentToDelivery.incrementAndGet();
+                }
+                handledOrders.incrementAndGet();
+            }
+            if (!worked) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    private void runDriver(LatencyRecorder recorder, String email) {
+        DeliveryNotificationManager notifications = DeliveryNotificationManager.getInstance();
+        while (!adminsDone() || deliveredOrders.get() < sentToDelivery.get()) {
+            long t = System.nanoTime();
+            List<Order> deliveries = system.getDeliveryOrders();
+            recorder.record("driver.listDeliveries", System.nanoTime() - t);
+
+            boolean worked = false;
+            for (Order order : deliveries) {
+                // Une commande livrée repasse VALIDATED : un id déjà réclamé par un admin
+                // est réclamé une seconde fois (valeur négative) par un seul livreur
+                if (!claimedOrders.add(-order.getOrderId())) {
+                    continue;
+                }
+                worked = true;
+                t = System.nanoTime();
+                system.setOrderStatus(order, Order.OrderStatus.VALIDATED);
+                notifications.addNotification(email, order.getOrderId());
+                recorder.record("driver.confirmDelivery", System.nanoTime() - t);
+                deliveredOrders.incrementAndGet();
+            }
+            if (!worked) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    private boolean adminsDone() {
+        return clientsDone && handledOrders.get() >= placedOrders.get();
+    }
+
+    private synchronized LatencyRecorder newRecorder() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    private static Thread startThread(String name, CountDownLatch start, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            body.run();
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return Integer.parseInt(arg.substring(prefix.length()));
+            }
+        }
+        return defaultValue;
+    }
+}
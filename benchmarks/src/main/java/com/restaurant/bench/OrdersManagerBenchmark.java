@@ -0,0 +1,67 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.OrdersManager;
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.order.Order;
+import com.restaurant.model.payment.CashPaymentStrategy;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Coût de chargement (liste complète ou streaming), de réécriture complète et d'ajout d'une commande
+ * en fonction de la taille de l'historique (orders.txt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class OrdersManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int orderCount;
+
+    private OrdersManager manager;
+    private List<Order> orders;
+    private MenuIt dish;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = SyntheticData.prepareDataDir();
+        SyntheticData.writeOrders(dir, orderCount);
+        manager = OrdersManager.getInstance();
+        orders = manager.loadOrders();
+        dish = new MenuIt("Couscous", "Couscous traditionnel aux légumes", 800);
+    }
+
+    @Benchmark
+    public List<Order> loadOrders() {
+        return manager.loadOrders();
+    }
+
+    @Benchmark
+    public long streamOrders() {
+        try (Stream<Order> stream = manager.streamOrders()) {
+            return stream.mapToLong(Order::getTotalCents).sum();
+        }
+    }
+
+    @Benchmark
+    public void saveOrders() {
+        manager.saveOrders(orders);
+    }
+
+    @Benchmark
+    public void appendOrder() {
+        Order order = new Order();
+        order.addItem(dish, 2);
+        order.setPaymentStrategy(new CashPaymentStrategy());
+        order.processPayment();
+        manager.appendOrder(order).join();
+    }
+}
@@ -0,0 +1,48 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.ClientOrderManager;
+import com.restaurant.model.OrdersManager;
+import com.restaurant.model.order.Order;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Chargement complet de orders.txt et client_orders.txt selon le nombre de
+ * threads d'analyse (1 = séquentiel, 0 = un par cœur)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ParallelLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int orderCount;
+
+    @Param({"1", "0"})
+    public int loadParallelism;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = SyntheticData.prepareDataDir();
+        SyntheticData.writeOrders(dir, orderCount);
+        SyntheticData.writeClientOrders(dir, orderCount);
+        System.setProperty("restaurant.loadParallelism", String.valueOf(loadParallelism));
+    }
+
+    @Benchmark
+    public List<Order> loadOrders() {
+        return OrdersManager.getInstance().loadOrders();
+    }
+
+    @Benchmark
+    public Map<String, List<Order>> loadAllClientOrders() {
+        return ClientOrderManager.getInstance().loadAllClientOrders();
+    }
+}
@@ -0,0 +1,115 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.ClientOrderManager;
+import com.restaurant.model.OrdersManager;
+import com.restaurant.model.menu.MenuRegistry;
+import com.restaurant.model.order.Order;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Débit d'analyse des fichiers texte en Mo/s (compteur "megabytes") :
+ * codec en place (OrdersManager, ClientOrderManager, sur un seul thread)
+ * contre l'ancienne lecture String.split + Double.parseDouble + DateTimeFormatter
+ *
+ * java -jar target/benchmarks.jar RecordParseBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecordParseBenchmark {
+    private static final double MEGABYTE = 1024 * 1024;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    @Param({"100000"})
+    public int orderCount;
+
+    private File ordersFile;
+    private double ordersMegabytes;
+    private double clientOrdersMegabytes;
+
+    /**
+     * Volume analysé, rapporté par JMH en Mo/s
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Volume {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            megabytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = SyntheticData.prepareDataDir();
+        SyntheticData.writeOrders(dir, orderCount);
+        SyntheticData.writeClientOrders(dir, orderCount);
+        ordersFile = new File(dir, "orders.txt");
+        ordersMegabytes = ordersFile.length() / MEGABYTE;
+        clientOrdersMegabytes = new File(dir, "client_orders.txt").length() / MEGABYTE;
+        // Un seul thread : mesurer l'analyse, pas le parallélisme
+        System.setProperty("restaurant.loadParallelism", "1");
+    }
+
+    @Benchmark
+    public List<Order> loadOrders(Volume volume) {
+        volume.megabytes += ordersMegabytes;
+        return OrdersManager.getInstance().loadOrders();
+    }
+
+    @Benchmark
+    public Map<String, List<Order>> loadAllClientOrders(Volume volume) {
+        volume.megabytes += clientOrdersMegabytes;
+        return ClientOrderManager.getInstance().loadAllClientOrders();
+    }
+
+    @Benchmark
+    public List<Order> splitBaseline(Volume volume) throws IOException {
+        volume.megabytes += ordersMegabytes;
+        List<Order> orders = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(ordersFile))) {
+            String line;
+            Order current = null;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("ORDER:")) {
+                    current = restoreOrder(line.substring(6).split("\\|"));
+                } else if (line.startsWith("ITEM:") && current != null) {
+                    String[] parts = line.substring(5).split("\\|");
+                    double price = Double.parseDouble(parts[1]);
+                    current.addItem(MenuRegistry.getInstance().resolve(parts[0], price), Integer.parseInt(parts[2]));
+                } else if (line.equals("---") && current != null) {
+                    orders.add(current);
+                    current = null;
+                }
+            }
+        }
+        return orders;
+    }
+
+    // Lecture d'un en-tête ORDER: telle qu'avant le codec
+    private static Order restoreOrder(String[] parts) {
+        LocalDateTime orderTime = LocalDateTime.parse(parts[1], DATE_FORMATTER);
+        boolean paid = parts.length <= 3 || Boolean.parseBoolean(parts[3]);
+        String paymentMethod = parts.length > 4 && !parts[4].isEmpty() ? parts[4] : "PAID";
+        Order.OrderStatus status = parts.length > 5 && !parts[5].isEmpty() ?
+                Order.OrderStatus.valueOf(parts[5]) : Order.OrderStatus.PENDING;
+        LocalDateTime processedTime = parts.length > 6 && !parts[6].isEmpty() ?
+                LocalDateTime.parse(parts[6], DATE_FORMATTER) : null;
+        return Order.restore(Integer.parseInt(parts[0]), orderTime, processedTime, status, paid, paymentMethod);
+    }
+}
@@ -0,0 +1,124 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.DataFiles;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+/**
+ * Génération de jeux de données synthétiques au format des managers
+ *
+ * Chaque benchmark travaille dans un répertoire temporaire déclaré via
+ * -Drestaurant.dataDir, jamais sur les fichiers du projet.
+ */
+final class SyntheticData {
+    static final String[] DISHES = {
+            "Chorba|350.0", "Bourek|250.0", "Salade Mixte|200.0", "Couscous|800.0",
+            "Tajine|900.0", "Rechta|700.0", "Garantita|300.0", "Baklawa|400.0",
+            "Makroud|350.0", "Zlabia|300.0", "Thé à la menthe|150.0", "Café|200.0",
+            "Jus d'orange|250.0"
+    };
+    private static final String[] STATUSES = {"VALIDATED", "VALIDATED", "DELIVERED", "PENDING"};
+
+    static final int CLIENT_COUNT = 1000;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Créer un répertoire de données vide, le déclarer aux managers et couper la console
+     * (les managers journalisent sur System.out, ce qui fausserait les mesures)
+     */
+    static File prepareDataDir() throws IOException {
+        File dir = Files.createTempDirectory("restaurant-bench").toFile();
+        System.setProperty(DataFiles.DATA_DIR_PROPERTY, dir.getPath());
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return dir;
+    }
+
+    static String clientEmail(int i) {
+        return "client" + (i % CLIENT_COUNT) + "@gmail.com";
+    }
+
+    static void writeOrders(File dir, int count) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dir, "orders.txt")))) {
+            for (int i = 0; i < count; i++) {
+                writer.write(orderLine(i, STATUSES[i % STATUSES.length], true));
+                writer.newLine();
+                writeItems(writer, i);
+                writer.write("---");
+                writer.newLine();
+            }
+        }
+    }
+
+    static void writeClientOrders(File dir, int count) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dir, "client_orders.txt")))) {
+            for (int i = 0; i < count; i++) {
+                writer.write("CLIENT:" + clientEmail(i));
+                writer.newLine();
+                writer.write(orderLine(i, STATUSES[i % STATUSES.length], false));
+                writer.newLine();
+                writeItems(writer, i);
+                writer.write("---");
+                writer.newLine();
+            }
+        }
+    }
+
+    static void writeUsers(File dir, int count) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dir, "users.txt")))) {
+            for (int i = 0; i < count; i++) {
+                String status = i % 50 == 0 ? "PENDING" : "APPROVED";
+                String role = i % 50 == 0 ? "LIVREUR" : "CLIENT";
+                writer.write("user" + i + "@gmail.com:pass" + i + ":" + role + ":" + status);
+                writer.newLine();
+            }
+        }
+    }
+
+    static void writeNotifications(File dir, int count) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dir, "delivery_notifications.txt")))) {
+            for (int i = 0; i < count; i++) {
+                writer.write(timestamp(i) + "|livreur" + (i % 20) + "@gmail.com|" + (1000 + i));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String orderLine(int i, String status, boolean withPaidFlag) {
+        String total = (100.0 * (1 + i % 40)) + "";
+        String payment = i % 3 == 0 ? "ONSITE" : "PAID";
+        if (withPaidFlag) {
+            // ORDER_ID|DATE|TOTAL|PAID|PAYMENT_METHOD|STATUS|PROCESSED_TIME
+            String processed = "PENDING".equals(status) ? "" : timestamp(i + 30);
+            return "ORDER:" + (1000 + i) + "|" + timestamp(i) + "|" + total + "|true|" +
+                    payment + "|" + status + "|" + processed;
+        }
+        // ORDER_ID|DATE|TOTAL|PAYMENT_METHOD|STATUS
+        return "ORDER:" + (1000 + i) + "|" + timestamp(i) + "|" + total + "|" + payment + "|" + status;
+    }
+
+    private static void writeItems(BufferedWriter writer, int i) throws IOException {
+        int itemCount = 1 + i % 4;
+        for (int j = 0; j < itemCount; j++) {
+            writer.write("ITEM:" + DISHES[(i + j * 7) % DISHES.length] + "|" + (1 + (i + j) % 5));
+            writer.newLine();
+        }
+    }
+
+    // Une commande par minute à partir du 01/01/2025
+    private static String timestamp(int minuteOffset) {
+        int minutes = minuteOffset % 60;
+        int hours = (minuteOffset / 60) % 24;
+        int days = minuteOffset / (60 * 24);
+        int day = 1 + days % 28;
+        int month = 1 + (days / 28) % 12;
+        int year = 2025 + days / (28 * 12);
+        return String.format("%02d/%02d/%04d %02d:%02d", day, month, year, hours, minutes);
+    }
+}
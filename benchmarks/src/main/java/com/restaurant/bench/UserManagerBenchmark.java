@@ -0,0 +1,43 @@
+package com.restaurant.bench;
+
+import com.restaurant.model.User;
+import com.restaurant.model.UserManager;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Coût d'une connexion en fonction du nombre de comptes (users.txt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UserManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int userCount;
+
+    private UserManager manager;
+    private String email;
+    private String password;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = SyntheticData.prepareDataDir();
+        SyntheticData.writeUsers(dir, userCount);
+        manager = UserManager.getInstance();
+        // Dernier compte approuvé : pire cas d'un parcours linéaire
+        int last = userCount % 50 == 1 ? userCount - 2 : userCount - 1;
+        email = "user" + last + "@gmail.com";
+        password = "pass" + last;
+    }
+
+    @Benchmark
+    public User login() {
+        return manager.login(email, password);
+    }
+}
@@ -2,12 +2,13 @@ package com.restaurant.controller;
 
 import com.restaurant.model.RestaurantSystem;
 import com.restaurant.model.UserSession;
-import com.restaurant.model.ClientOrderManager;
+import com.restaurant.model.OrderPage;
 import com.restaurant.model.menu.*;
 import com.restaurant.model.order.Order;
 import com.restaurant.model.payment.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * CONTRÔLEUR MVC - Gère la logique métier
@@ -40,7 +41,7 @@ public class RestaurantController {
     }
 
     public boolean hasCurrentOrder() {
-        return currentOrder != null && !currentOrder.getItems().isEmpty();
+        return currentOrder != null && currentOrder.getItemCount() > 0;
     }
 
     public void addItemToOrder(MenuIt item, int quantity) {
@@ -92,7 +93,7 @@ public class RestaurantController {
     }
 
     public boolean validateAndPayOrder() {
-        if (currentOrder == null || currentOrder.getItems().isEmpty()) {
+        if (currentOrder == null || currentOrder.getItemCount() == 0) {
             System.out.println("❌ Commande vide");
             return false;
         }
@@ -104,16 +105,26 @@ public class RestaurantController {
         boolean success = currentOrder.processPayment();
 
         if (success) {
-            system.addOrder(currentOrder);
+            // Si client connecté, la commande porte son email : une seule écriture,
+            // l'historique client est lu depuis le store des commandes
+            UserSession session = UserSession.getInstance();
+            boolean client = session.isClient() && session.getCurrentEmail() != null;
+            if (client) {
+                currentOrder.setClientEmail(session.getCurrentEmail());
+            }
+
+            // Attendre que la commande soit durable (fsync du group commit) avant de
+            // confirmer et de notifier la cuisine ; appelé hors du thread JavaFX
+            try {
+                system.addOrder(currentOrder).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.out.println("❌ Erreur lors de l'enregistrement de la commande: " + cause.getMessage());
+                return false;
+            }
             system.notifyOrderValidated(currentOrder);
 
-            // Si client connecté, sauvegarder dans son historique
-            UserSession session = UserSession.getInstance();
-            if (session.isClient() && session.getCurrentEmail() != null) {
-                ClientOrderManager.getInstance().saveClientOrder(
-                        session.getCurrentEmail(),
-                        currentOrder
-                );
+            if (client) {
                 session.addOrderToHistory(currentOrder);
             }
 
@@ -138,7 +149,7 @@ public class RestaurantController {
             items.add((MenuIt) component);
         } else if (component instanceof MenuCategory) {
             MenuCategory category = (MenuCategory) component;
-            for (MenuComponent child : category.getComponents()) {
+            for (MenuComponent child : category.getComponentsView()) {
                 collectMenuItems(child, items);
             }
         }
@@ -149,7 +160,7 @@ public class RestaurantController {
         MenuComponent menu = system.getMenu();
         if (menu instanceof MenuCategory) {
             MenuCategory mainMenu = (MenuCategory) menu;
-            for (MenuComponent child : mainMenu.getComponents()) {
+            for (MenuComponent child : mainMenu.getComponentsView()) {
                 if (child instanceof MenuCategory) {
                     categories.add((MenuCategory) child);
                 }
@@ -162,9 +173,21 @@ public class RestaurantController {
         // Si client connecté, retourner son historique personnel
         UserSession session = UserSession.getInstance();
         if (session.isClient() && session.getCurrentEmail() != null) {
-            return ClientOrderManager.getInstance().loadClientOrders(session.getCurrentEmail());
+            return system.getClientOrders(session.getCurrentEmail());
         }
         // Sinon retourner l'historique global (pour admins/guests)
         return system.getOrders();
     }
+
+    /**
+     * Historique paginé, du plus récent au plus ancien
+     * cursor = OrderPage.FIRST pour la première page, puis page.getNextCursor()
+     */
+    public OrderPage getOrderHistory(long cursor, int limit) {
+        UserSession session = UserSession.getInstance();
+        if (session.isClient() && session.getCurrentEmail() != null) {
+            return OrderPage.slice(system.getClientOrders(session.getCurrentEmail()), cursor, limit);
+        }
+        return system.findOrders(null, null, cursor, limit);
+    }
 }
\ No newline at end of file
@@ -10,7 +10,7 @@ import java.util.Map;
  */
 public class AdminManager {
     private static AdminManager instance;
-    private static final String ADMIN_FILE = "admins.txt";
+    private static final String ADMIN_FILE = DataFiles.path("admins.txt");
     private Map<String, String> admins;
 
     private AdminManager() {
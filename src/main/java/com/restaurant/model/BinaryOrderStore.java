@@ -0,0 +1,561 @@
+package com.restaurant.model;
+
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.menu.MenuRegistry;
+import com.restaurant.model.order.Order;
+import com.restaurant.model.order.OrderItem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PATRON SINGLETON - Store binaire des commandes (orders.bin)
+ *
+ * Chaque commande occupe des slots de taille fixe : un slot d'en-tête suivi de
+ * slots d'items (ITEMS_PER_SLOT items par slot). Les lectures passent par un
+ * fichier mappé en mémoire et un index orderId -> slot construit à l'ouverture
+ * en ne lisant que les en-têtes ; un changement de statut réécrit l'en-tête en place.
+ *
+ * Au démarrage (loadOrders), seules les commandes actives sont décodées. Les
+ * commandes clôturées restent dans le fichier, regroupées par jour en segments
+ * froids (SegmentStore) : leur résumé est calculé sur les slots sans créer de
+ * commandes, et elles ne sont décodées qu'à la demande via l'index (loadOrder).
+ */
+public class BinaryOrderStore implements SegmentStore {
+    private static BinaryOrderStore instance;
+    private static final String STORE_FILE = DataFiles.path("orders.bin");
+
+    static final int SLOT_SIZE = 128;
+    private static final byte HEADER_SLOT = 1;
+    private static final byte ITEMS_SLOT = 2;
+
+    // En-tête: KIND|STATUS|PAYMENT|PAID|ORDER_ID|ITEM_COUNT|ORDER_TIME|PROCESSED_TIME|EMAIL_LENGTH|EMAIL
+    private static final int STATUS_OFFSET = 1;
+    private static final int PAYMENT_OFFSET = 2;
+    private static final int PAID_OFFSET = 3;
+    private static final int ID_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int ORDER_TIME_OFFSET = 12;
+    private static final int PROCESSED_TIME_OFFSET = 20;
+    private static final int EMAIL_OFFSET = 28;
+    private static final int MAX_EMAIL_BYTES = SLOT_SIZE - EMAIL_OFFSET - 1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    // Item: NAME_LENGTH|NAME (UTF-8, tronqué)|PRICE|QUANTITY
+    private static final int MAX_NAME_BYTES = 47;
+    private static final int ITEM_SIZE = 1 + MAX_NAME_BYTES + 8 + 4;
+    private static final int ITEMS_OFFSET = 4;
+    static final int ITEMS_PER_SLOT = (SLOT_SIZE - ITEMS_OFFSET) / ITEM_SIZE;
+
+    private static final String[] PAYMENT_METHODS = {"", "PAID", "ONSITE"};
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long size;
+    // Index orderId stocké -> numéro du slot d'en-tête
+    private Map<Integer, Integer> index;
+    // Vrai si les ids stockés ne correspondent plus aux ids en mémoire
+    private boolean storeStale;
+    // Segments froids : commandes clôturées non décodées, par jour
+    private final Map<LocalDate, OrderSegment> segments = new TreeMap<>();
+    private final Map<LocalDate, List<Integer>> coldOrderIds = new HashMap<>();
+
+    private BinaryOrderStore() {
+        index = new HashMap<>();
+        open();
+        System.out.println("💾 BinaryOrderStore initialisé (" + index.size() + " commande(s) indexée(s))");
+    }
+
+    public static BinaryOrderStore getInstance() {
+        if (instance == null) {
+            synchronized (BinaryOrderStore.class) {
+                if (instance == null) {
+                    instance = new BinaryOrderStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void open() {
+        try {
+            channel = FileChannel.open(new File(STORE_FILE).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+            buildIndex();
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de l'ouverture de " + STORE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parcourir uniquement les slots d'en-tête pour construire l'index
+     *
+     * Un ajout interrompu (crash pendant writeOrder) laisse un en-tête dont les
+     * slots d'items dépassent la fin du fichier : l'index s'arrête avant lui et
+     * la fin incomplète est tronquée, le prochain ajout repart de là.
+     */
+    private void buildIndex() throws IOException {
+        index.clear();
+        ByteBuffer buffer = map();
+        int slotCount = (int) (size / SLOT_SIZE);
+        int slot = 0;
+        while (slot < slotCount) {
+            int base = slot * SLOT_SIZE;
+            if (buffer.get(base) != HEADER_SLOT) {
+                slot++;
+                continue;
+            }
+            int itemCount = buffer.getShort(base + COUNT_OFFSET);
+            if (itemCount < 0 || slot + 1 + itemSlots(itemCount) > slotCount) {
+                break;
+            }
+            index.put(buffer.getInt(base + ID_OFFSET), slot);
+            slot += 1 + itemSlots(itemCount);
+        }
+
+        long end = (long) slot * SLOT_SIZE;
+        if (end < size) {
+            System.out.println("⚠️ " + (size - end) + " octet(s) incomplet(s) ignoré(s) en fin de " + STORE_FILE);
+            mapped = null;
+            channel.truncate(end);
+            size = end;
+        }
+    }
+
+    private ByteBuffer map() throws IOException {
+        if (mapped == null || mapped.capacity() < size) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return mapped;
+    }
+
+    private static int itemSlots(int itemCount) {
+        return (itemCount + ITEMS_PER_SLOT - 1) / ITEMS_PER_SLOT;
+    }
+
+    /**
+     * Décoder les commandes actives ; les commandes clôturées ne sont que résumées par jour
+     */
+    @Override
+    public synchronized List<Order> loadOrders() {
+        List<Order> orders = new ArrayList<>();
+        storeStale = false;
+        segments.clear();
+        coldOrderIds.clear();
+        int coldOrders = 0;
+        try {
+            ByteBuffer buffer = map();
+            Map<LocalDate, ColdDay> coldDays = new TreeMap<>();
+            for (Map.Entry<Integer, Integer> entry : sortedIndex()) {
+                int base = entry.getValue() * SLOT_SIZE;
+                if (isClosed(buffer, base)) {
+                    // Les ids des commandes froides ne doivent pas être réattribués
+                    Order.reserveIdsThrough(entry.getKey());
+                    coldDays.computeIfAbsent(orderDay(buffer, base), ColdDay::new).add(buffer, base);
+                    coldOrders++;
+                    continue;
+                }
+                Order order = decode(buffer, entry.getValue());
+                if (entry.getKey() != order.getOrderId()) {
+                    storeStale = true;
+                }
+                orders.add(order);
+            }
+            for (ColdDay coldDay : coldDays.values()) {
+                segments.put(coldDay.day, coldDay.toSegment());
+                coldOrderIds.put(coldDay.day, coldDay.orderIds);
+            }
+            System.out.println("✅ " + orders.size() + " commande(s) chargée(s) depuis " + STORE_FILE +
+                    " ; " + coldOrders + " commande(s) clôturée(s) laissée(s) sur disque (" + segments.size() + " jour(s))");
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors du chargement des commandes: " + e.getMessage());
+        }
+        return orders;
+    }
+
+    /**
+     * Vrai si orders.bin ne contient aucune commande (premier démarrage)
+     */
+    public synchronized boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Lire une seule commande par son id stocké, sans décoder les autres
+     */
+    public synchronized Order loadOrder(int orderId) {
+        Integer slot = index.get(orderId);
+        if (slot == null) {
+            return null;
+        }
+        try {
+            return decode(map(), slot);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de la lecture de la commande #" + orderId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized List<OrderSegment> getColdSegments() {
+        List<OrderSegment> cold = new ArrayList<>();
+        for (OrderSegment segment : segments.values()) {
+            if (!segment.isLoaded()) {
+                cold.add(segment);
+            }
+        }
+        return cold;
+    }
+
+    /**
+     * Décoder à la demande les commandes clôturées d'un jour
+     */
+    @Override
+    public synchronized OrderArchive openSegment(OrderSegment segment) {
+        OrderArchive archive = new OrderArchive();
+        for (Order order : readColdDay(segment)) {
+            archive.add(order);
+        }
+        return archive;
+    }
+
+    @Override
+    public synchronized List<Order> loadSegment(OrderSegment segment) {
+        if (segment.isLoaded() || segments.get(segment.getDay()) != segment) {
+            return new ArrayList<>();
+        }
+        List<Order> orders = readColdDay(segment);
+        segment.markLoaded();
+        return orders;
+    }
+
+    /**
+     * Retrouver une commande froide par l'index : seul son en-tête et ses items sont lus
+     */
+    @Override
+    public synchronized Order findColdOrder(OrderSegment segment, int orderId) {
+        Order order = loadOrder(orderId);
+        if (order == null || !order.getOrderTime().toLocalDate().equals(segment.getDay())) {
+            return null;
+        }
+        return order;
+    }
+
+    private List<Order> readColdDay(OrderSegment segment) {
+        List<Order> orders = new ArrayList<>();
+        for (int orderId : coldOrderIds.getOrDefault(segment.getDay(), Collections.emptyList())) {
+            Order order = loadOrder(orderId);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    // Même règle que OrderArchive.isClosed, lue dans l'en-tête
+    private static boolean isClosed(ByteBuffer buffer, int base) {
+        return STATUSES[buffer.get(base + STATUS_OFFSET)] == Order.OrderStatus.VALIDATED;
+    }
+
+    private static LocalDate orderDay(ByteBuffer buffer, int base) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(base + ORDER_TIME_OFFSET), 0, ZoneOffset.UTC).toLocalDate();
+    }
+
+    private List<Map.Entry<Integer, Integer>> sortedIndex() {
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        return entries;
+    }
+
+    private Order decode(ByteBuffer buffer, int slot) {
+        int base = slot * SLOT_SIZE;
+        long processedTime = buffer.getLong(base + PROCESSED_TIME_OFFSET);
+        Order order = Order.restore(buffer.getInt(base + ID_OFFSET),
+                LocalDateTime.ofEpochSecond(buffer.getLong(base + ORDER_TIME_OFFSET), 0, ZoneOffset.UTC),
+                processedTime == NO_TIME ? null : LocalDateTime.ofEpochSecond(processedTime, 0, ZoneOffset.UTC),
+                STATUSES[buffer.get(base + STATUS_OFFSET)],
+                buffer.get(base + PAID_OFFSET) == 1,
+                PAYMENT_METHODS[buffer.get(base + PAYMENT_OFFSET)]);
+
+        String email = readEmail(buffer, base);
+        if (email != null) {
+            order.setClientEmail(email);
+        }
+
+        int itemCount = buffer.getShort(base + COUNT_OFFSET);
+        byte[] name = new byte[MAX_NAME_BYTES];
+        for (int i = 0; i < itemCount; i++) {
+            int itemBase = itemBase(base, i);
+            order.addItem(readDish(buffer, itemBase, name), readQuantity(buffer, itemBase));
+        }
+
+        return order;
+    }
+
+    private static String readEmail(ByteBuffer buffer, int base) {
+        int emailLength = buffer.get(base + EMAIL_OFFSET);
+        if (emailLength <= 0) {
+            return null;
+        }
+        byte[] email = new byte[emailLength];
+        buffer.get(base + EMAIL_OFFSET + 1, email);
+        return new String(email, StandardCharsets.UTF_8);
+    }
+
+    private static int itemBase(int base, int item) {
+        return base + SLOT_SIZE * (1 + item / ITEMS_PER_SLOT) + ITEMS_OFFSET + ITEM_SIZE * (item % ITEMS_PER_SLOT);
+    }
+
+    private static MenuIt readDish(ByteBuffer buffer, int itemBase, byte[] name) {
+        int nameLength = buffer.get(itemBase);
+        buffer.get(itemBase + 1, name, 0, nameLength);
+        return MenuRegistry.getInstance().resolve(new String(name, 0, nameLength, StandardCharsets.UTF_8),
+                buffer.getDouble(itemBase + 1 + MAX_NAME_BYTES));
+    }
+
+    private static int readQuantity(ByteBuffer buffer, int itemBase) {
+        return buffer.getInt(itemBase + 1 + MAX_NAME_BYTES + 8);
+    }
+
+    /**
+     * Résumé des commandes clôturées d'un jour, calculé sur les slots sans créer de commandes
+     */
+    private static class ColdDay {
+        private final LocalDate day;
+        private final List<Integer> orderIds = new ArrayList<>();
+        private int minOrderId = Integer.MAX_VALUE;
+        private int maxOrderId = Integer.MIN_VALUE;
+        private int paidCount;
+        private long totalCents;
+        private final Map<String, Integer> dishCounts = new LinkedHashMap<>();
+        private final Set<String> clients = new HashSet<>();
+        private final byte[] name = new byte[MAX_NAME_BYTES];
+
+        ColdDay(LocalDate day) {
+            this.day = day;
+        }
+
+        void add(ByteBuffer buffer, int base) {
+            int orderId = buffer.getInt(base + ID_OFFSET);
+            orderIds.add(orderId);
+            minOrderId = Math.min(minOrderId, orderId);
+            maxOrderId = Math.max(maxOrderId, orderId);
+            String email = readEmail(buffer, base);
+            if (email != null) {
+                clients.add(email);
+            }
+            if (buffer.get(base + PAID_OFFSET) != 1) {
+                return;
+            }
+            paidCount++;
+            int itemCount = buffer.getShort(base + COUNT_OFFSET);
+            for (int i = 0; i < itemCount; i++) {
+                int itemBase = itemBase(base, i);
+                MenuIt dish = readDish(buffer, itemBase, name);
+                int quantity = readQuantity(buffer, itemBase);
+                totalCents += dish.getPriceCents() * quantity;
+                dishCounts.merge(dish.getName(), quantity, Integer::sum);
+            }
+        }
+
+        OrderSegment toSegment() {
+            OrderSegment segment = new OrderSegment(day);
+            segment.restoreSummary(true, orderIds.size(), minOrderId, maxOrderId, paidCount, totalCents);
+            segment.restoreDishCounts(dishCounts);
+            segment.restoreClients(clients);
+            return segment;
+        }
+    }
+
+    private static ByteBuffer encode(Order order) {
+        List<OrderItem> items = order.getItemsView();
+        ByteBuffer buffer = ByteBuffer.allocate(SLOT_SIZE * (1 + itemSlots(items.size())));
+
+        buffer.put(0, HEADER_SLOT);
+        buffer.put(STATUS_OFFSET, (byte) order.getStatus().ordinal());
+        buffer.put(PAYMENT_OFFSET, paymentCode(order.getPaymentMethod()));
+        buffer.put(PAID_OFFSET, (byte) (order.isPaid() ? 1 : 0));
+        buffer.putInt(ID_OFFSET, order.getOrderId());
+        buffer.putShort(COUNT_OFFSET, (short) items.size());
+        buffer.putLong(ORDER_TIME_OFFSET, order.getOrderTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(PROCESSED_TIME_OFFSET, epochSecond(order.getProcessedTime()));
+        if (order.hasClient()) {
+            byte[] email = truncate(order.getClientEmail().getBytes(StandardCharsets.UTF_8), MAX_EMAIL_BYTES);
+            buffer.put(EMAIL_OFFSET, (byte) email.length);
+            buffer.put(EMAIL_OFFSET + 1, email);
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            int slotBase = SLOT_SIZE * (1 + i / ITEMS_PER_SLOT);
+            if (i % ITEMS_PER_SLOT == 0) {
+                buffer.put(slotBase, ITEMS_SLOT);
+            }
+            int itemBase = slotBase + ITEMS_OFFSET + ITEM_SIZE * (i % ITEMS_PER_SLOT);
+            OrderItem item = items.get(i);
+            byte[] name = truncate(MenuRegistry.getInstance().reference(item.getMenuItem())
+                    .getBytes(StandardCharsets.UTF_8), MAX_NAME_BYTES);
+            buffer.put(itemBase, (byte) name.length);
+            buffer.put(itemBase + 1, name);
+            buffer.putDouble(itemBase + 1 + MAX_NAME_BYTES, item.getMenuItem().getPrice());
+            buffer.putInt(itemBase + 1 + MAX_NAME_BYTES + 8, item.getQuantity());
+        }
+        return buffer;
+    }
+
+    // Tronquer sans couper un caractère UTF-8 multi-octets
+    private static byte[] truncate(byte[] name, int maxBytes) {
+        if (name.length <= maxBytes) {
+            return name;
+        }
+        int length = maxBytes;
+        while (length > 0 && (name[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(name, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    private static byte paymentCode(String paymentMethod) {
+        for (byte i = 0; i < PAYMENT_METHODS.length; i++) {
+            if (PAYMENT_METHODS[i].equals(paymentMethod)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> appendOrder(Order order) {
+        if (!order.isPaid()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            writeOrder(order);
+            channel.force(false);
+            System.out.println("✅ Commande #" + order.getOrderId() + " ajoutée au fichier");
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de l'ajout de la commande: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void writeOrder(Order order) throws IOException {
+        long position = size;
+        size += write(channel, encode(order), position);
+        index.put(order.getOrderId(), (int) (position / SLOT_SIZE));
+    }
+
+    private static int write(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer, position + buffer.position());
+        }
+        return buffer.capacity();
+    }
+
+    @Override
+    public synchronized void appendStatusChange(Order order) {
+        Integer slot = index.get(order.getOrderId());
+        if (slot == null) {
+            return;
+        }
+
+        // Réécrire en place le statut et la date de traitement (en-tête uniquement)
+        ByteBuffer status = ByteBuffer.allocate(1);
+        status.put(0, (byte) order.getStatus().ordinal());
+        ByteBuffer processedTime = ByteBuffer.allocate(8);
+        processedTime.putLong(0, epochSecond(order.getProcessedTime()));
+        try {
+            long position = (long) slot * SLOT_SIZE;
+            channel.write(status, position + STATUS_OFFSET);
+            channel.write(processedTime, position + PROCESSED_TIME_OFFSET);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de la mise à jour du statut: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized boolean needsCompaction() {
+        return storeStale;
+    }
+
+    /**
+     * Réécrire le store dans un fichier temporaire, forcé sur disque puis renommé
+     * atomiquement : un crash pendant le compactage laisse l'ancien fichier intact.
+     */
+    @Override
+    public synchronized void compact(List<Order> orders) {
+        File file = new File(STORE_FILE);
+        File tmp = new File(STORE_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            Set<Integer> written = new HashSet<>();
+            for (Order order : orders) {
+                if (order.isPaid()) {
+                    position += write(out, encode(order), position);
+                    written.add(order.getOrderId());
+                }
+            }
+            // Commandes clôturées restées sur disque : slots recopiés tels quels
+            ByteBuffer buffer = map();
+            for (OrderSegment segment : getColdSegments()) {
+                for (int orderId : coldOrderIds.get(segment.getDay())) {
+                    Integer slot = index.get(orderId);
+                    if (slot == null || !written.add(orderId)) {
+                        continue;
+                    }
+                    int base = slot * SLOT_SIZE;
+                    int length = SLOT_SIZE * (1 + itemSlots(buffer.getShort(base + COUNT_OFFSET)));
+                    position += write(out, buffer.slice(base, length), position);
+                }
+            }
+            out.force(true);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de la réécriture du store: " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+
+        try {
+            mapped = null;
+            channel.close();
+            Files.move(tmp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            storeStale = false;
+            System.out.println("✅ " + orders.size() + " commande(s) réécrite(s) dans " + STORE_FILE);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de la réécriture du store: " + e.getMessage());
+            tmp.delete();
+        } finally {
+            open(); // Ré-indexer le fichier en place, nouveau ou ancien
+        }
+    }
+}
@@ -2,25 +2,48 @@ package com.restaurant.model;
 
 import com.restaurant.model.order.Order;
 import com.restaurant.model.order.OrderItem;
-import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.menu.MenuRegistry;
 import java.io.*;
+import java.nio.channels.Channels;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * PATRON SINGLETON - Gestion de l'historique des commandes clients
  * Format: client_orders.txt avec association email -> commandes
+ *
+ * Un index persistant client_orders.idx (EMAIL|OFFSET) associe chaque client
+ * à la position de ses enregistrements, pour ne lire que ceux-ci. Chaque ajout
+ * y est suivi d'une ligne #LENGTH|TAILLE : la taille de client_orders.txt
+ * couverte par l'index. Au chargement, les blocs écrits au-delà (crash entre
+ * l'écriture des données et celle de l'index) sont indexés en relisant la fin.
+ *
+ * Historique hérité : les nouvelles commandes portent l'email du client dans
+ * orders.txt (voir RestaurantSystem.getClientOrders) ; ce fichier n'est plus lu
+ * que pour les commandes passées avant ce changement.
  */
 public class ClientOrderManager {
     private static ClientOrderManager instance;
-    private static final String CLIENT_ORDERS_FILE = "client_orders.txt";
+    private static final String CLIENT_ORDERS_FILE = DataFiles.path("client_orders.txt");
+    private static final String INDEX_FILE = DataFiles.path("client_orders.idx");
+    private static final String LENGTH_PREFIX = "#LENGTH|";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final String[] PAYMENT_METHODS = {"PAID", "ONSITE"};
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    // Index email -> positions (en octets) des blocs CLIENT: dans le fichier
+    private Map<String, List<Long>> index;
 
     private ClientOrderManager() {
+        index = new HashMap<>();
+        loadIndex();
         System.out.println("📋 ClientOrderManager initialisé");
     }
 
@@ -37,12 +60,15 @@ public class ClientOrderManager {
 
     /**
      * Sauvegarder une commande pour un client
+     * @deprecated la commande est enregistrée une seule fois avec Order.setClientEmail
      */
-    public void saveClientOrder(String clientEmail, Order order) {
+    @Deprecated
+    public synchronized void saveClientOrder(String clientEmail, Order order) {
         if (clientEmail == null || order == null || !order.isPaid()) {
             return;
         }
 
+        long offset = new File(CLIENT_ORDERS_FILE).length();
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(CLIENT_ORDERS_FILE, true))) {
             // Format: CLIENT_EMAIL|ORDER_ID|DATE|TOTAL|PAYMENT_METHOD|STATUS
             writer.write("CLIENT:" + clientEmail);
@@ -55,8 +81,8 @@ public class ClientOrderManager {
             writer.newLine();
 
             // Items
-            for (OrderItem item : order.getItems()) {
-                writer.write("ITEM:" + item.getMenuItem().getName() + "|" +
+            for (OrderItem item : order.getItemsView()) {
+                writer.write("ITEM:" + MenuRegistry.getInstance().reference(item.getMenuItem()) + "|" +
                         item.getMenuItem().getPrice() + "|" +
                         item.getQuantity());
                 writer.newLine();
@@ -69,62 +95,173 @@ public class ClientOrderManager {
 
         } catch (IOException e) {
             System.out.println("❌ Erreur sauvegarde commande client: " + e.getMessage());
+            return;
         }
+
+        appendToIndex(clientEmail, offset, new File(CLIENT_ORDERS_FILE).length());
     }
 
     /**
-     * Charger l'historique d'un client
+     * Charger l'index client, le compléter si des blocs ont été écrits après
+     * lui, ou le reconstruire s'il est absent ou incohérent
      */
-    public List<Order> loadClientOrders(String clientEmail) {
-        List<Order> orders = new ArrayList<>();
-        File file = new File(CLIENT_ORDERS_FILE);
+    private void loadIndex() {
+        File dataFile = new File(CLIENT_ORDERS_FILE);
+        File indexFile = new File(INDEX_FILE);
+
+        if (indexFile.exists()) {
+            long coveredLength = -1;
+            try (BufferedReader reader = new BufferedReader(new FileReader(indexFile))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(LENGTH_PREFIX)) {
+                        coveredLength = Long.parseLong(line.substring(LENGTH_PREFIX.length()));
+                        continue;
+                    }
+                    int separator = line.lastIndexOf('|');
+                    if (separator > 0) {
+                        long offset = Long.parseLong(line.substring(separator + 1));
+                        index.computeIfAbsent(line.substring(0, separator), k -> new ArrayList<>()).add(offset);
+                    }
+                }
+                // Sans taille couverte (ancien index) ou données tronquées : reconstruire
+                if (coveredLength >= 0 && coveredLength <= dataFile.length()) {
+                    if (coveredLength < dataFile.length()) {
+                        indexTail(dataFile, coveredLength);
+                    }
+                    return;
+                }
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("❌ Erreur lecture index clients: " + e.getMessage());
+            }
+            index.clear();
+        }
 
-        if (!file.exists()) {
-            return orders;
+        if (dataFile.exists()) {
+            rebuildIndex(dataFile);
         }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            String currentClient = null;
-            Order currentOrder = null;
+    /**
+     * Reconstruire l'index en parcourant tout client_orders.txt
+     */
+    private void rebuildIndex(File dataFile) {
+        Map<String, List<Long>> found = new HashMap<>();
+        try {
+            scan(dataFile, 0, found);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur reconstruction index clients: " + e.getMessage());
+            return;
+        }
+        index.putAll(found);
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(INDEX_FILE))) {
+            writeEntries(writer, found);
+            writer.write(LENGTH_PREFIX + dataFile.length());
+            writer.newLine();
+            System.out.println("✅ Index clients reconstruit (" + index.size() + " client(s))");
+        } catch (IOException e) {
+            System.out.println("❌ Erreur écriture index clients: " + e.getMessage());
+        }
+    }
 
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("CLIENT:")) {
-                    currentClient = line.substring(7);
+    /**
+     * Indexer les blocs écrits après from, la fin de la partie déjà couverte
+     */
+    private void indexTail(File dataFile, long from) {
+        Map<String, List<Long>> found = new HashMap<>();
+        try {
+            scan(dataFile, from, found);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur reconstruction index clients: " + e.getMessage());
+            return;
+        }
+        // Un bloc déjà indexé (crash entre EMAIL|OFFSET et #LENGTH) n'est pas ajouté deux fois
+        for (Map.Entry<String, List<Long>> entry : found.entrySet()) {
+            List<Long> offsets = index.computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+            entry.getValue().removeIf(offsets::contains);
+            offsets.addAll(entry.getValue());
+        }
 
-                } else if (line.startsWith("ORDER:") && clientEmail.equals(currentClient)) {
-                    String[] parts = line.substring(6).split("\\|");
-                    currentOrder = new Order();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(INDEX_FILE, true))) {
+            writeEntries(writer, found);
+            writer.write(LENGTH_PREFIX + dataFile.length());
+            writer.newLine();
+            System.out.println("⚠️ Index clients complété (" + (dataFile.length() - from) + " octet(s) non indexé(s))");
+        } catch (IOException e) {
+            System.out.println("❌ Erreur mise à jour index clients: " + e.getMessage());
+        }
+    }
 
-                    if (parts.length > 3) {
-                        currentOrder.setPaymentMethod(parts[3]);
-                    }
-                    if (parts.length > 4) {
-                        try {
-                            currentOrder.setStatus(Order.OrderStatus.valueOf(parts[4]));
-                        } catch (IllegalArgumentException e) {
-                            // Ignorer
-                        }
-                    }
+    /**
+     * Relever les positions des lignes CLIENT: à partir de from, octet par octet
+     */
+    private static void scan(File dataFile, long from, Map<String, List<Long>> found) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(dataFile))) {
+            in.skipNBytes(from);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long lineStart = from;
+            long position = from;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString().trim();
+                if (text.startsWith("CLIENT:")) {
+                    found.computeIfAbsent(text.substring(7), k -> new ArrayList<>()).add(lineStart);
+                }
+                line.reset();
+                lineStart = position;
+            }
+        }
+    }
 
-                    orders.add(currentOrder);
+    private static void writeEntries(BufferedWriter writer, Map<String, List<Long>> entries) throws IOException {
+        for (Map.Entry<String, List<Long>> entry : entries.entrySet()) {
+            for (Long offset : entry.getValue()) {
+                writer.write(entry.getKey() + "|" + offset);
+                writer.newLine();
+            }
+        }
+    }
 
-                } else if (line.startsWith("ITEM:") && currentOrder != null && clientEmail.equals(currentClient)) {
-                    String[] parts = line.substring(5).split("\\|");
-                    String itemName = parts[0];
-                    double itemPrice = Double.parseDouble(parts[1]);
-                    int quantity = Integer.parseInt(parts[2]);
+    private void appendToIndex(String clientEmail, long offset, long dataLength) {
+        index.computeIfAbsent(clientEmail, k -> new ArrayList<>()).add(offset);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(INDEX_FILE, true))) {
+            writer.write(clientEmail + "|" + offset);
+            writer.newLine();
+            writer.write(LENGTH_PREFIX + dataLength);
+            writer.newLine();
+        } catch (IOException e) {
+            System.out.println("❌ Erreur mise à jour index clients: " + e.getMessage());
+        }
+    }
 
-                    MenuIt menuItem = new MenuIt(itemName, "", itemPrice);
-                    currentOrder.addItem(menuItem, quantity);
+    /**
+     * Charger l'historique d'un client (lecture des seuls blocs indexés)
+     */
+    public synchronized List<Order> loadClientOrders(String clientEmail) {
+        List<Order> orders = new ArrayList<>();
+        List<Long> offsets = index.getOrDefault(clientEmail, Collections.emptyList());
+        File file = new File(CLIENT_ORDERS_FILE);
 
-                } else if (line.equals("---")) {
-                    if (currentOrder != null && clientEmail.equals(currentClient)) {
-                        currentOrder.setPaymentStrategy(new com.restaurant.model.payment.CashPaymentStrategy());
-                        currentOrder.processPayment();
-                    }
-                    currentOrder = null;
-                    currentClient = null;
+        if (offsets.isEmpty() || !file.exists()) {
+            return orders;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            // Un seul codec (tampon et cache des plats) pour tous les blocs du client
+            OrderRecordCodec codec = new OrderRecordCodec(InputStream.nullInputStream());
+            String clientLine = "CLIENT:" + clientEmail;
+            for (Long offset : offsets) {
+                raf.seek(offset);
+                codec.reset(Channels.newInputStream(raf.getChannel()));
+                Order order = readOrderBlock(codec, clientLine);
+                if (order != null) {
+                    orders.add(order);
                 }
             }
 
@@ -137,8 +274,56 @@ public class ClientOrderManager {
         return orders;
     }
 
+    /**
+     * Lire un bloc CLIENT:/ORDER:/ITEM:/--- à partir de la position courante
+     */
+    private static Order readOrderBlock(OrderRecordCodec codec, String clientLine) throws IOException {
+        if (!codec.nextLine() || !codec.lineText().equals(clientLine)) {
+            return null;
+        }
+
+        Order currentOrder = null;
+        while (codec.nextLine()) {
+            if (codec.startRecord(OrderRecordCodec.ORDER)) {
+                currentOrder = restoreOrder(codec);
+
+            } else if (currentOrder != null && codec.startRecord(OrderRecordCodec.ITEM)) {
+                codec.readItem(currentOrder);
+
+            } else if (codec.isSeparator()) {
+                return currentOrder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reconstituer une commande de l'historique avec son id et sa date d'origine
+     * Format: ORDER_ID|DATE|TOTAL|PAYMENT_METHOD|STATUS
+     */
+    private static Order restoreOrder(OrderRecordCodec codec) {
+        int orderId = codec.nextInt();
+
+        // Date illisible : dater du chargement
+        LocalDateTime orderTime = codec.nextDateTime();
+        if (orderTime == null) {
+            orderTime = LocalDateTime.now();
+        }
+
+        codec.skipField(); // Total recalculé à partir des articles
+        String paymentMethod = codec.nextToken(PAYMENT_METHODS);
+        if (paymentMethod == null) {
+            paymentMethod = "PAID";
+        }
+        Order.OrderStatus status = codec.nextEnum(STATUSES, Order.OrderStatus.PENDING);
+
+        // Seules les commandes payées sont enregistrées dans l'historique
+        return Order.restore(orderId, orderTime, null, status, true, paymentMethod);
+    }
+
     /**
      * Obtenir tous les historiques (pour admin)
+     * Le fichier est analysé en parallèle ; l'ordre des commandes de chaque client est conservé
      */
     public Map<String, List<Order>> loadAllClientOrders() {
         Map<String, List<Order>> allOrders = new HashMap<>();
@@ -148,61 +333,67 @@ public class ClientOrderManager {
             return allOrders;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            String currentClient = null;
-            Order currentOrder = null;
+        try {
+            List<Map.Entry<String, Order>> entries = ParallelRecordParser.parse(file, (codec, out) ->
+                    readClientOrders(codec, (clientEmail, order) ->
+                            out.add(new AbstractMap.SimpleImmutableEntry<>(clientEmail, order))));
+            for (Map.Entry<String, Order> entry : entries) {
+                allOrders.computeIfAbsent(entry.getKey(), email -> new ArrayList<>()).add(entry.getValue());
+            }
+            System.out.println("✅ Historiques de " + allOrders.size() + " client(s) chargés");
 
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("CLIENT:")) {
-                    currentClient = line.substring(7);
-                    if (!allOrders.containsKey(currentClient)) {
-                        allOrders.put(currentClient, new ArrayList<>());
-                    }
+        } catch (IOException e) {
+            System.out.println("❌ Erreur chargement historiques: " + e.getMessage());
+        }
+        return allOrders;
+    }
 
-                } else if (line.startsWith("ORDER:")) {
-                    String[] parts = line.substring(6).split("\\|");
-                    currentOrder = new Order();
+    /**
+     * Parcourir tous les historiques en streaming : chaque commande est lue puis passée
+     * à consumer avec l'email du client, sans rien conserver ; le fichier est fermé à la fin
+     */
+    public void forEachClientOrder(BiConsumer<String, Order> consumer) {
+        File file = new File(CLIENT_ORDERS_FILE);
 
-                    if (parts.length > 3) {
-                        currentOrder.setPaymentMethod(parts[3]);
-                    }
-                    if (parts.length > 4) {
-                        try {
-                            currentOrder.setStatus(Order.OrderStatus.valueOf(parts[4]));
-                        } catch (IllegalArgumentException e) {
-                            // Ignorer
-                        }
-                    }
+        if (!file.exists()) {
+            return;
+        }
 
-                    if (currentClient != null) {
-                        allOrders.get(currentClient).add(currentOrder);
-                    }
+        try (InputStream in = new FileInputStream(file)) {
+            readClientOrders(new OrderRecordCodec(in), consumer);
+
+        } catch (IOException e) {
+            System.out.println("❌ Erreur chargement historiques: " + e.getMessage());
+        }
+    }
 
-                } else if (line.startsWith("ITEM:") && currentOrder != null) {
-                    String[] parts = line.substring(5).split("\\|");
-                    String itemName = parts[0];
-                    double itemPrice = Double.parseDouble(parts[1]);
-                    int quantity = Integer.parseInt(parts[2]);
+    /**
+     * Lire des blocs CLIENT:/ORDER:/ITEM:/--- jusqu'à la fin du contenu
+     */
+    private static void readClientOrders(OrderRecordCodec codec, BiConsumer<String, Order> consumer)
+            throws IOException {
+        String currentClient = null;
+        Order currentOrder = null;
 
-                    MenuIt menuItem = new MenuIt(itemName, "", itemPrice);
-                    currentOrder.addItem(menuItem, quantity);
+        while (codec.nextLine()) {
+            if (codec.startRecord(OrderRecordCodec.CLIENT)) {
+                currentClient = codec.nextString();
 
-                } else if (line.equals("---")) {
-                    if (currentOrder != null) {
-                        currentOrder.setPaymentStrategy(new com.restaurant.model.payment.CashPaymentStrategy());
-                        currentOrder.processPayment();
-                    }
-                    currentOrder = null;
-                }
-            }
+            } else if (codec.startRecord(OrderRecordCodec.ORDER)) {
+                currentOrder = currentClient != null ? restoreOrder(codec) : null;
 
-            System.out.println("✅ Historiques de " + allOrders.size() + " client(s) chargés");
+            } else if (currentOrder != null && codec.startRecord(OrderRecordCodec.ITEM)) {
+                codec.readItem(currentOrder);
 
-        } catch (IOException e) {
-            System.out.println("❌ Erreur chargement historiques: " + e.getMessage());
+            } else if (codec.isSeparator()) {
+                if (currentOrder != null) {
+                    consumer.accept(currentClient, currentOrder);
+                }
+                currentOrder = null;
+            }
+        }
+        if (currentOrder != null) {
+            consumer.accept(currentClient, currentOrder);
         }
-
-        return allOrders;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,480 @@
+package com.restaurant.model;
+
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.menu.MenuRegistry;
+import com.restaurant.model.order.Order;
+import com.restaurant.model.order.OrderItem;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Fichier compressé d'un segment scellé (segment-AAAAMMJJ.blk)
+ *
+ * Les commandes, triées par id, sont découpées en blocs de BLOCK_ORDERS
+ * commandes. Chaque bloc est encodé en colonnes (ids et dates en deltas,
+ * entiers variables) puis compressé avec Deflater. Plats et clients sont
+ * encodés par dictionnaire : un plat est stocké une fois par fichier sous sa
+ * référence du menu (#id) et son prix, chaque article ne garde que son
+ * numéro dans le dictionnaire.
+ *
+ * Un index creux en fin de fichier (premier et dernier id, position de
+ * chaque bloc) permet de retrouver une commande en ne décompressant qu'un bloc.
+ *
+ * Format : MAGIC, blocs, dictionnaire (compressé), index,
+ * puis position du dictionnaire, position de l'index et MAGIC.
+ */
+final class CompressedSegment {
+    private static final int MAGIC = 0x52534231; // "RSB1"
+    private static final int BLOCK_ORDERS = 128;
+    private static final int TRAILER_BYTES = 8 + 8 + 4;
+    private static final String[] PAYMENT_METHODS = {"PAID", "ONSITE"};
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    private CompressedSegment() {
+    }
+
+    // ===== Écriture =====
+
+    /**
+     * Écrire les commandes d'un segment dans file
+     */
+    static void write(File file, List<Order> orders) throws IOException {
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparingInt(Order::getOrderId));
+
+        MenuRegistry menuRegistry = MenuRegistry.getInstance();
+        Map<String, Integer> dishIds = new HashMap<>();
+        Buffer dishDictionary = new Buffer();
+        Map<String, Integer> clientIds = new HashMap<>();
+        Buffer clientDictionary = new Buffer();
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream out = new FileOutputStream(file)) {
+            Buffer index = new Buffer();
+            out.write(ByteBuffer.allocate(4).putInt(MAGIC).array());
+            long position = 4;
+
+            int blocks = (sorted.size() + BLOCK_ORDERS - 1) / BLOCK_ORDERS;
+            index.writeVarInt(blocks);
+            for (int start = 0; start < sorted.size(); start += BLOCK_ORDERS) {
+                List<Order> block = sorted.subList(start, Math.min(start + BLOCK_ORDERS, sorted.size()));
+                Buffer raw = new Buffer();
+                encodeBlock(block, raw, menuRegistry, dishIds, dishDictionary, clientIds, clientDictionary);
+                byte[] compressed = deflate(deflater, raw);
+                out.write(compressed);
+
+                // Index creux : bornes d'ids et position du bloc
+                index.writeVarInt(block.get(0).getOrderId());
+                index.writeVarInt(block.get(block.size() - 1).getOrderId());
+                index.writeVarLong(position);
+                index.writeVarInt(compressed.length);
+                position += compressed.length;
+            }
+
+            // Dictionnaire : plats puis clients
+            Buffer dictionary = new Buffer();
+            dictionary.writeVarInt(dishIds.size());
+            dictionary.write(dishDictionary);
+            dictionary.writeVarInt(clientIds.size());
+            dictionary.write(clientDictionary);
+            byte[] compressedDictionary = deflate(deflater, dictionary);
+            long dictionaryPosition = position;
+            out.write(compressedDictionary);
+            long indexPosition = dictionaryPosition + compressedDictionary.length;
+            out.write(index.bytes, 0, index.size);
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            trailer.putLong(dictionaryPosition).putLong(indexPosition).putInt(MAGIC);
+            out.write(trailer.array());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void encodeBlock(List<Order> block, Buffer out, MenuRegistry menuRegistry,
+                                    Map<String, Integer> dishIds, Buffer dishDictionary,
+                                    Map<String, Integer> clientIds, Buffer clientDictionary) {
+        out.writeVarInt(block.size());
+
+        // Ids croissants : premier id puis écarts
+        int previousId = 0;
+        for (Order order : block) {
+            out.writeVarInt(order.getOrderId() - previousId);
+            previousId = order.getOrderId();
+        }
+
+        // Dates en secondes : écart avec la commande précédente, traitement relatif à la commande
+        long previousTime = 0;
+        for (Order order : block) {
+            long orderTime = epochSecond(order.getOrderTime());
+            out.writeVarLong(zigZag(orderTime - previousTime));
+            previousTime = orderTime;
+        }
+        for (Order order : block) {
+            LocalDateTime processed = order.getProcessedTime();
+            out.writeVarLong(processed == null ? 0
+                    : zigZag(epochSecond(processed) - epochSecond(order.getOrderTime())) + 1);
+        }
+
+        // Statut, moyen de paiement et paiement dans un octet
+        for (Order order : block) {
+            int payment = "ONSITE".equals(order.getPaymentMethod()) ? 1 : 0;
+            out.writeByte(order.getStatus().ordinal() << 2 | payment << 1 | (order.isPaid() ? 1 : 0));
+        }
+
+        // Clients : 0 pour un invité, sinon numéro du dictionnaire + 1
+        for (Order order : block) {
+            if (!order.hasClient()) {
+                out.writeVarInt(0);
+                continue;
+            }
+            Integer client = clientIds.get(order.getClientEmail());
+            if (client == null) {
+                client = clientIds.size();
+                clientIds.put(order.getClientEmail(), client);
+                clientDictionary.writeString(order.getClientEmail());
+            }
+            out.writeVarInt(client + 1);
+        }
+
+        // Articles : nombre par commande, puis (plat, quantité)
+        for (Order order : block) {
+            out.writeVarInt(order.getItemCount());
+        }
+        for (Order order : block) {
+            for (int i = 0; i < order.getItemCount(); i++) {
+                OrderItem item = order.getItem(i);
+                MenuIt dish = item.getMenuItem();
+                String reference = menuRegistry.reference(dish);
+                String key = reference + '|' + dish.getPriceCents();
+                Integer id = dishIds.get(key);
+                if (id == null) {
+                    id = dishIds.size();
+                    dishIds.put(key, id);
+                    dishDictionary.writeString(reference);
+                    dishDictionary.writeVarLong(dish.getPriceCents());
+                }
+                out.writeVarInt(id);
+                out.writeVarInt(item.getQuantity());
+            }
+        }
+    }
+
+    private static byte[] deflate(Deflater deflater, Buffer raw) {
+        deflater.reset();
+        deflater.setInput(raw.bytes, 0, raw.size);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.size / 4));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            compressed.write(chunk, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    // ===== Lecture =====
+
+    /**
+     * Lire toutes les commandes du fichier, triées par id
+     */
+    static List<Order> readAll(File file) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        ByteBuffer trailer = ByteBuffer.wrap(data, data.length - TRAILER_BYTES, TRAILER_BYTES);
+        long dictionaryPosition = trailer.getLong();
+        long indexPosition = trailer.getLong();
+        checkMagic(file, data, trailer.getInt());
+
+        Dictionary dictionary = readDictionary(data, (int) dictionaryPosition,
+                (int) (indexPosition - dictionaryPosition));
+        Reader index = new Reader(data, (int) indexPosition);
+        int blocks = index.readVarInt();
+        List<Order> orders = new ArrayList<>(blocks * BLOCK_ORDERS);
+        for (int b = 0; b < blocks; b++) {
+            index.readVarInt();
+            index.readVarInt();
+            int position = (int) index.readVarLong();
+            int length = index.readVarInt();
+            decodeBlock(new Reader(inflate(data, position, length), 0), dictionary, orders, -1);
+        }
+        return orders;
+    }
+
+    /**
+     * Retrouver une commande en ne décompressant que le bloc qui peut la contenir ; null si absente
+     */
+    static Order find(File file, int orderId) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long fileLength = raf.length();
+            byte[] trailerBytes = new byte[TRAILER_BYTES];
+            raf.seek(fileLength - TRAILER_BYTES);
+            raf.readFully(trailerBytes);
+            ByteBuffer trailer = ByteBuffer.wrap(trailerBytes);
+            long dictionaryPosition = trailer.getLong();
+            long indexPosition = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException(file.getPath() + " n'est pas un segment compressé");
+            }
+
+            // Dictionnaire et index sont lus ensemble : ils se suivent en fin de fichier
+            byte[] tail = new byte[(int) (fileLength - TRAILER_BYTES - dictionaryPosition)];
+            raf.seek(dictionaryPosition);
+            raf.readFully(tail);
+            int dictionaryLength = (int) (indexPosition - dictionaryPosition);
+
+            Reader index = new Reader(tail, dictionaryLength);
+            int blocks = index.readVarInt();
+            for (int b = 0; b < blocks; b++) {
+                int firstId = index.readVarInt();
+                int lastId = index.readVarInt();
+                long position = index.readVarLong();
+                int length = index.readVarInt();
+                if (orderId < firstId) {
+                    return null;
+                }
+                if (orderId > lastId) {
+                    continue;
+                }
+
+                byte[] block = new byte[length];
+                raf.seek(position);
+                raf.readFully(block);
+                Dictionary dictionary = readDictionary(tail, 0, dictionaryLength);
+                List<Order> found = new ArrayList<>(1);
+                decodeBlock(new Reader(inflate(block, 0, length), 0), dictionary, found, orderId);
+                return found.isEmpty() ? null : found.get(0);
+            }
+            return null;
+        }
+    }
+
+    private static void checkMagic(File file, byte[] data, int trailerMagic) throws IOException {
+        if (data.length < 4 + TRAILER_BYTES || trailerMagic != MAGIC
+                || ByteBuffer.wrap(data, 0, 4).getInt() != MAGIC) {
+            throw new IOException(file.getPath() + " n'est pas un segment compressé");
+        }
+    }
+
+    /**
+     * Plats (résolus contre le menu) et emails du fichier
+     */
+    private static class Dictionary {
+        final MenuIt[] dishes;
+        final String[] clients;
+
+        Dictionary(MenuIt[] dishes, String[] clients) {
+            this.dishes = dishes;
+            this.clients = clients;
+        }
+    }
+
+    private static Dictionary readDictionary(byte[] data, int position, int length) throws IOException {
+        Reader reader = new Reader(inflate(data, position, length), 0);
+        MenuRegistry menuRegistry = MenuRegistry.getInstance();
+        MenuIt[] dishes = new MenuIt[reader.readVarInt()];
+        for (int i = 0; i < dishes.length; i++) {
+            String reference = reader.readString();
+            dishes[i] = menuRegistry.resolve(reference, reader.readVarLong());
+        }
+        String[] clients = new String[reader.readVarInt()];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = reader.readString();
+        }
+        return new Dictionary(dishes, clients);
+    }
+
+    /**
+     * Décoder un bloc dans out ; seulement la commande wantedId si wantedId >= 0
+     */
+    private static void decodeBlock(Reader in, Dictionary dictionary, List<Order> out, int wantedId) {
+        int count = in.readVarInt();
+        int[] ids = new int[count];
+        long[] orderTimes = new long[count];
+        long[] processedTimes = new long[count];
+        int[] flags = new int[count];
+        int[] clients = new int[count];
+        int[] itemCounts = new int[count];
+
+        int id = 0;
+        for (int i = 0; i < count; i++) {
+            id += in.readVarInt();
+            ids[i] = id;
+        }
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            time += unZigZag(in.readVarLong());
+            orderTimes[i] = time;
+        }
+        for (int i = 0; i < count; i++) {
+            processedTimes[i] = in.readVarLong();
+        }
+        for (int i = 0; i < count; i++) {
+            flags[i] = in.readByte();
+        }
+        for (int i = 0; i < count; i++) {
+            clients[i] = in.readVarInt();
+        }
+        for (int i = 0; i < count; i++) {
+            itemCounts[i] = in.readVarInt();
+        }
+
+        for (int i = 0; i < count; i++) {
+            boolean wanted = wantedId < 0 || ids[i] == wantedId;
+            Order order = null;
+            if (wanted) {
+                LocalDateTime processed = processedTimes[i] == 0 ? null
+                        : toDateTime(orderTimes[i] + unZigZag(processedTimes[i] - 1));
+                order = Order.restore(ids[i], toDateTime(orderTimes[i]), processed,
+                        STATUSES[flags[i] >>> 2], (flags[i] & 1) != 0, PAYMENT_METHODS[(flags[i] >>> 1) & 1]);
+                if (clients[i] != 0) {
+                    order.setClientEmail(dictionary.clients[clients[i] - 1]);
+                }
+            }
+            for (int j = 0; j < itemCounts[i]; j++) {
+                MenuIt dish = dictionary.dishes[in.readVarInt()];
+                int quantity = in.readVarInt();
+                if (order != null) {
+                    order.addItem(dish, quantity);
+                }
+            }
+            if (order != null) {
+                out.add(order);
+                if (wantedId >= 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int position, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, position, length);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Bloc compressé tronqué");
+                }
+                raw.write(chunk, 0, read);
+            }
+            return raw.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Bloc compressé illisible: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // ===== Entiers variables =====
+
+    private static class Buffer {
+        byte[] bytes = new byte[256];
+        int size;
+
+        void writeByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            for (byte b : utf8) {
+                writeByte(b);
+            }
+        }
+
+        void write(Buffer other) {
+            for (int i = 0; i < other.size; i++) {
+                writeByte(other.bytes[i]);
+            }
+        }
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
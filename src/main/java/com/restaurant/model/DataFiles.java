@@ -0,0 +1,23 @@
+package com.restaurant.model;
+
+import java.io.File;
+
+/**
+ * Emplacement des fichiers de données
+ * Par défaut le répertoire courant ; -Drestaurant.dataDir=... permet de
+ * travailler sur un autre jeu de données (benchmarks, tests de charge)
+ */
+public final class DataFiles {
+    public static final String DATA_DIR_PROPERTY = "restaurant.dataDir";
+
+    private DataFiles() {
+    }
+
+    public static String path(String fileName) {
+        String dataDir = System.getProperty(DATA_DIR_PROPERTY);
+        if (dataDir == null || dataDir.isEmpty()) {
+            return fileName;
+        }
+        return new File(dataDir, fileName).getPath();
+    }
+}
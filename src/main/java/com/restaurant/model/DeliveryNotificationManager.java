@@ -11,7 +11,7 @@ import java.util.List;
  */
 public class DeliveryNotificationManager {
     private static DeliveryNotificationManager instance;
-    private static final String NOTIFICATIONS_FILE = "delivery_notifications.txt";
+    private static final String NOTIFICATIONS_FILE = DataFiles.path("delivery_notifications.txt");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     private DeliveryNotificationManager() {
@@ -0,0 +1,186 @@
+package com.restaurant.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écrivain "group commit" pour un fichier en ajout seul
+ *
+ * Un canal unique reste ouvert ; un thread d'écriture regroupe les
+ * enregistrements soumis dans une courte fenêtre en un seul write + fsync.
+ * Chaque appelant reçoit un CompletableFuture terminé quand son
+ * enregistrement est durable sur disque.
+ *
+ * La fermeture ne passe pas par une interruption (elle fermerait le canal en
+ * pleine écriture) : un marqueur CLOSE en fin de file arrête l'écrivain une
+ * fois tout ce qui le précède écrit.
+ */
+class GroupCommitWriter {
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int MAX_BATCH = 1024;
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    // Protégé par queue : aucun ajout après le marqueur de fermeture
+    private boolean closed;
+
+    private static class PendingWrite {
+        final byte[] data;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    // Marqueur de fin de file déposé par close()
+    private static final PendingWrite CLOSE = new PendingWrite(new byte[0]);
+
+    GroupCommitWriter(String fileName) throws IOException {
+        this.fileName = fileName;
+        this.channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.flusher = new Thread(this::runFlusher, "group-commit-" + fileName);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Soumettre un enregistrement ; le futur se termine une fois l'écriture synchronisée
+     */
+    CompletableFuture<Void> submit(String record) {
+        PendingWrite write = new PendingWrite(record.getBytes(Charset.defaultCharset()));
+        synchronized (queue) {
+            if (closed) {
+                write.future.completeExceptionally(new IOException(fileName + " est fermé"));
+                return write.future;
+            }
+            queue.add(write);
+        }
+        return write.future;
+    }
+
+    /**
+     * Attendre que tous les enregistrements déjà soumis soient durables
+     */
+    void flush() {
+        submit("").join();
+    }
+
+    /**
+     * Vider le fichier (après compactage) ; les écritures en attente doivent être flushées
+     */
+    void truncate() throws IOException {
+        synchronized (channel) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Écrire les enregistrements en attente puis fermer le canal
+     */
+    void close() {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("❌ Erreur fermeture de " + fileName + ": " + e.getMessage());
+        }
+        // Écrivain bloqué au-delà du délai : rien ne doit rester en attente
+        PendingWrite left;
+        while ((left = queue.poll()) != null) {
+            left.future.completeExceptionally(new IOException(fileName + " est fermé"));
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                PendingWrite first = queue.take();
+                if (first == CLOSE) {
+                    closing = true;
+                } else {
+                    batch.add(first);
+                }
+
+                // Regrouper tout ce qui arrive pendant la fenêtre
+                long deadline = System.nanoTime() + WINDOW_NANOS;
+                while (!closing && batch.size() < MAX_BATCH) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == CLOSE) {
+                        closing = true;
+                    } else {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Seul le marqueur CLOSE arrête l'écrivain ; écrire le lot en cours
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int length = 0;
+        for (PendingWrite write : batch) {
+            length += write.data.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (PendingWrite write : batch) {
+            buffer.put(write.data);
+        }
+        buffer.flip();
+
+        try {
+            synchronized (channel) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            for (PendingWrite write : batch) {
+                write.future.complete(null);
+            }
+        } catch (IOException e) {
+            for (PendingWrite write : batch) {
+                write.future.completeExceptionally(e);
+            }
+        }
+    }
+}
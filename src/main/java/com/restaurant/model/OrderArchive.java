@@ -0,0 +1,343 @@
+package com.restaurant.model;
+
+import com.restaurant.model.menu.MenuCategory;
+import com.restaurant.model.menu.MenuComponent;
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.order.Order;
+import com.restaurant.model.order.OrderItem;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Archive en colonnes des commandes clôturées (VALIDATED) restaurées au démarrage
+ *
+ * Au lieu d'un objet Order par commande (ArrayList, OrderItem, MenuIt et deux
+ * LocalDateTime), chaque champ est une colonne de tableaux primitifs : id, dates
+ * en secondes epoch, statut, paiement et montant en centimes. Les lignes
+ * d'articles sont stockées à plat (plat, quantité) ; itemStart[i] indique où
+ * commencent celles de la commande i. Les plats sont internés dans un
+ * dictionnaire amorcé avec le menu : un nom n'est stocké qu'une fois. Les emails
+ * clients sont internés de la même façon (colonne clients, NO_CLIENT pour un invité).
+ *
+ * Les commandes sont matérialisées à la demande (get, findOrder, asList).
+ * Un index trié par date sert les requêtes paginées de l'historique, un index
+ * par client l'historique d'un client ; tous deux sont construits à la demande.
+ * L'archive est remplie pendant le chargement puis seulement lue.
+ */
+public class OrderArchive {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_CLIENT = -1;
+    private static final String[] PAYMENT_METHODS = {"", "PAID", "ONSITE"};
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    // Dictionnaire des plats : id -> MenuIt partagé, (nom, prix) -> id
+    private final List<MenuIt> dishes = new ArrayList<>();
+    private final Map<String, Integer> dishIds = new HashMap<>();
+
+    // Dictionnaire des clients : id -> email, email -> id
+    private final List<String> clientEmails = new ArrayList<>();
+    private final Map<String, Integer> clientIds = new HashMap<>();
+
+    // Colonnes par commande
+    private int size;
+    private int[] orderIds = new int[16];
+    private long[] orderTimes = new long[16];
+    private long[] processedTimes = new long[16];
+    private byte[] statuses = new byte[16];
+    private byte[] payments = new byte[16];
+    private boolean[] paid = new boolean[16];
+    private long[] totalCents = new long[16];
+    private int[] clients = new int[16];
+    private int[] itemStart = new int[17];
+
+    // Colonnes par article
+    private int itemCount;
+    private int[] itemDishes = new int[32];
+    private int[] itemQuantities = new int[32];
+
+    private boolean sortedById = true;
+
+    // Index par date (clé OrderPage.timeKey), construit à la première requête paginée
+    private long[] sortedTimeKeys;
+    private int[] timeOrder;
+
+    // Index par client (id client -> positions), construit à la première requête
+    private int[][] positionsByClient;
+
+    public OrderArchive(MenuComponent menu) {
+        seedDishes(menu);
+    }
+
+    /**
+     * Archive sans menu : le dictionnaire des plats se remplit au fil des ajouts
+     */
+    public OrderArchive() {
+    }
+
+    private void seedDishes(MenuComponent component) {
+        if (component instanceof MenuIt) {
+            internDish((MenuIt) component);
+        } else if (component instanceof MenuCategory) {
+            ((MenuCategory) component).forEachComponent(this::seedDishes);
+        }
+    }
+
+    private int internDish(MenuIt dish) {
+        String key = dish.getName() + '|' + dish.getPriceCents();
+        Integer id = dishIds.get(key);
+        if (id == null) {
+            id = dishes.size();
+            dishes.add(dish);
+            dishIds.put(key, id);
+        }
+        return id;
+    }
+
+    private int internClient(String email) {
+        Integer id = clientIds.get(email);
+        if (id == null) {
+            id = clientEmails.size();
+            clientEmails.add(email);
+            clientIds.put(email, id);
+        }
+        return id;
+    }
+
+    /**
+     * Une commande est archivable quand elle n'attend plus aucune action
+     */
+    public static boolean isClosed(Order order) {
+        return order.isValidated();
+    }
+
+    public void add(Order order) {
+        if (size == orderIds.length) {
+            int capacity = size * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            orderTimes = Arrays.copyOf(orderTimes, capacity);
+            processedTimes = Arrays.copyOf(processedTimes, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            payments = Arrays.copyOf(payments, capacity);
+            paid = Arrays.copyOf(paid, capacity);
+            totalCents = Arrays.copyOf(totalCents, capacity);
+            clients = Arrays.copyOf(clients, capacity);
+            itemStart = Arrays.copyOf(itemStart, capacity + 1);
+        }
+        if (size > 0 && order.getOrderId() <= orderIds[size - 1]) {
+            sortedById = false;
+        }
+
+        orderIds[size] = order.getOrderId();
+        orderTimes[size] = epochSecond(order.getOrderTime());
+        processedTimes[size] = epochSecond(order.getProcessedTime());
+        statuses[size] = (byte) order.getStatus().ordinal();
+        payments[size] = paymentCode(order.getPaymentMethod());
+        paid[size] = order.isPaid();
+        totalCents[size] = order.getTotalCents();
+        clients[size] = order.hasClient() ? internClient(order.getClientEmail()) : NO_CLIENT;
+
+        int count = order.getItemCount();
+        if (itemCount + count > itemDishes.length) {
+            int capacity = Math.max(itemDishes.length * 2, itemCount + count);
+            itemDishes = Arrays.copyOf(itemDishes, capacity);
+            itemQuantities = Arrays.copyOf(itemQuantities, capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            OrderItem item = order.getItem(i);
+            itemDishes[itemCount] = internDish(item.getMenuItem());
+            itemQuantities[itemCount] = item.getQuantity();
+            itemCount++;
+        }
+        size++;
+        itemStart[size] = itemCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getOrderId(int index) {
+        return orderIds[index];
+    }
+
+    public Order.OrderStatus getStatus(int index) {
+        return STATUSES[statuses[index]];
+    }
+
+    public boolean isPaid(int index) {
+        return paid[index];
+    }
+
+    public long getTotalCents(int index) {
+        return totalCents[index];
+    }
+
+    public int getItemStart(int index) {
+        return itemStart[index];
+    }
+
+    public int getItemEnd(int index) {
+        return itemStart[index + 1];
+    }
+
+    public MenuIt getItemDish(int itemIndex) {
+        return dishes.get(itemDishes[itemIndex]);
+    }
+
+    public int getItemQuantity(int itemIndex) {
+        return itemQuantities[itemIndex];
+    }
+
+    /**
+     * Matérialiser la commande à la position index
+     */
+    public Order get(int index) {
+        Order order = Order.restore(orderIds[index], toDateTime(orderTimes[index]),
+                toDateTime(processedTimes[index]), STATUSES[statuses[index]],
+                paid[index], PAYMENT_METHODS[payments[index]]);
+        if (clients[index] != NO_CLIENT) {
+            order.setClientEmail(clientEmails.get(clients[index]));
+        }
+        for (int i = itemStart[index]; i < itemStart[index + 1]; i++) {
+            order.addItem(dishes.get(itemDishes[i]), itemQuantities[i]);
+        }
+        return order;
+    }
+
+    public Order findOrder(int orderId) {
+        int index = indexOf(orderId);
+        return index < 0 ? null : get(index);
+    }
+
+    private int indexOf(int orderId) {
+        if (sortedById) {
+            int index = Arrays.binarySearch(orderIds, 0, size, orderId);
+            return index >= 0 ? index : -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (orderIds[i] == orderId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Commandes archivées d'un client, dans l'ordre de chargement
+     */
+    public List<Order> getOrdersByClient(String email) {
+        List<Order> orders = new ArrayList<>();
+        Integer client = clientIds.get(email);
+        if (client == null) {
+            return orders;
+        }
+        for (int index : ensureClientIndex()[client]) {
+            orders.add(get(index));
+        }
+        return orders;
+    }
+
+    private synchronized int[][] ensureClientIndex() {
+        if (positionsByClient != null && positionsByClient.length == clientEmails.size()) {
+            return positionsByClient;
+        }
+        int[] counts = new int[clientEmails.size()];
+        for (int i = 0; i < size; i++) {
+            if (clients[i] != NO_CLIENT) {
+                counts[clients[i]]++;
+            }
+        }
+        int[][] positions = new int[counts.length][];
+        for (int c = 0; c < counts.length; c++) {
+            positions[c] = new int[counts[c]];
+            counts[c] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            if (clients[i] != NO_CLIENT) {
+                positions[clients[i]][counts[clients[i]]++] = i;
+            }
+        }
+        positionsByClient = positions;
+        return positions;
+    }
+
+    /**
+     * Nombre de commandes dont la clé de date est strictement inférieure à key ;
+     * la commande de rang r (0 = la plus ancienne) s'obtient par getByTimeRank(r)
+     */
+    public int countTimeKeysBelow(long key) {
+        ensureTimeIndex();
+        int index = Arrays.binarySearch(sortedTimeKeys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public long getTimeKeyByRank(int rank) {
+        ensureTimeIndex();
+        return sortedTimeKeys[rank];
+    }
+
+    public Order getByTimeRank(int rank) {
+        ensureTimeIndex();
+        return get(timeOrder[rank]);
+    }
+
+    private synchronized void ensureTimeIndex() {
+        if (sortedTimeKeys != null && sortedTimeKeys.length == size) {
+            return;
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = OrderPage.timeKey(orderTimes[i], orderIds[i]);
+        }
+        timeOrder = IntStream.range(0, size).boxed()
+                .sorted((a, b) -> Long.compare(keys[a], keys[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = keys[timeOrder[i]];
+        }
+        sortedTimeKeys = sorted;
+    }
+
+    /**
+     * Vue en liste : chaque accès matérialise une commande, rien n'est conservé
+     */
+    public List<Order> asList() {
+        return new AbstractList<Order>() {
+            @Override
+            public Order get(int index) {
+                return OrderArchive.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static byte paymentCode(String paymentMethod) {
+        for (byte i = 0; i < PAYMENT_METHODS.length; i++) {
+            if (PAYMENT_METHODS[i].equals(paymentMethod)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.restaurant.model;
+
+import com.restaurant.model.order.Order;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Page de commandes triées de la plus récente à la plus ancienne
+ *
+ * Pagination par clé (keyset) : la page suivante se demande avec getNextCursor(),
+ * qui reste valide même si des commandes sont ajoutées entre deux pages.
+ * La clé composite (date de commande, id) est un long :
+ * (secondes depuis 2020-01-01) << 32 | id, valable jusqu'en 2088.
+ */
+public class OrderPage {
+    // Curseur de la première page
+    public static final long FIRST = Long.MAX_VALUE;
+    private static final long BASE_EPOCH_SECOND = 1_577_836_800L; // 2020-01-01T00:00
+
+    private final List<Order> orders;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    public OrderPage(List<Order> orders, long nextCursor, boolean hasMore) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Paginer une liste déjà chargée (ex: historique d'un client)
+     */
+    public static OrderPage slice(List<Order> orders, long cursor, int limit) {
+        List<Order> sorted = new ArrayList<>();
+        for (Order order : orders) {
+            if (timeKey(order) < cursor) {
+                sorted.add(order);
+            }
+        }
+        sorted.sort(Comparator.comparingLong((Order order) -> timeKey(order)).reversed());
+        if (sorted.size() <= limit) {
+            return new OrderPage(sorted, sorted.isEmpty() ? cursor : timeKey(sorted.get(sorted.size() - 1)), false);
+        }
+        List<Order> page = new ArrayList<>(sorted.subList(0, limit));
+        return new OrderPage(page, timeKey(page.get(limit - 1)), true);
+    }
+
+    public static long timeKey(Order order) {
+        return timeKey(order.getOrderTime().toEpochSecond(ZoneOffset.UTC), order.getOrderId());
+    }
+
+    public static long timeKey(long epochSecond, int orderId) {
+        return ((epochSecond - BASE_EPOCH_SECOND) << 32) | (orderId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Borne de clé pour une date : toutes les commandes passées avant time ont une clé inférieure
+     */
+    public static long timeBound(LocalDateTime time) {
+        return timeKey(time.toEpochSecond(ZoneOffset.UTC), 0);
+    }
+}
@@ -0,0 +1,422 @@
+package com.restaurant.model;
+
+import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.menu.MenuRegistry;
+import com.restaurant.model.order.Order;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * Lecture des enregistrements texte de commandes (ORDER:, ITEM:, CLIENT:, ---)
+ * sans String.split, Double.parseDouble ni DateTimeFormatter
+ *
+ * Les lignes sont repérées directement dans un tableau d'octets : celui du
+ * fichier entier (ParallelRecordParser, sans copie) ou un tampon réutilisé
+ * d'un enregistrement à l'autre pour un flux. Les champs séparés par '|' sont
+ * lus en place : entiers et centimes par accumulation de chiffres, dates
+ * dd/MM/yyyy HH:mm par positions fixes, statuts et paiements comparés aux
+ * constantes connues. Les références de plats déjà vues sont retrouvées dans
+ * un petit cache (octets, prix) -> MenuIt, sans créer de String.
+ *
+ * Une instance par thread : aucun état n'est partagé.
+ */
+final class OrderRecordCodec {
+    static final byte[] ORDER = ascii("ORDER:");
+    static final byte[] ITEM = ascii("ITEM:");
+    static final byte[] CLIENT = ascii("CLIENT:");
+
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+    private static final int DATE_LENGTH = 16; // dd/MM/yyyy HH:mm
+    private static final int DISH_CACHE_SIZE = 64; // puissance de 2
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    private byte[] buffer;
+    private InputStream in; // null : tout le contenu est déjà dans buffer
+    private int position;
+    private int limit;
+
+    // Ligne courante [lineStart, lineEnd[ (sans \r\n) et curseur de champ
+    private int lineStart;
+    private int lineEnd;
+    private int cursor;
+    private boolean pushedBack;
+
+    // Cache des plats : référence (octets) + prix -> MenuIt
+    private final byte[][] dishRefs = new byte[DISH_CACHE_SIZE][];
+    private final long[] dishCents = new long[DISH_CACHE_SIZE];
+    private final MenuIt[] dishItems = new MenuIt[DISH_CACHE_SIZE];
+
+    /**
+     * Lire directement data[start, end[, sans copie
+     */
+    OrderRecordCodec(byte[] data, int start, int end) {
+        this.buffer = data;
+        this.position = start;
+        this.limit = end;
+    }
+
+    /**
+     * Lire un flux au travers d'un tampon réutilisé
+     */
+    OrderRecordCodec(InputStream in) {
+        this.buffer = new byte[STREAM_BUFFER_SIZE];
+        reset(in);
+    }
+
+    /**
+     * Repartir sur un autre flux en gardant le tampon et le cache des plats
+     */
+    void reset(InputStream in) {
+        this.in = in;
+        this.position = 0;
+        this.limit = 0;
+        this.pushedBack = false;
+    }
+
+    // ==================== LIGNES ====================
+
+    /**
+     * Avancer à la ligne suivante ; false en fin de contenu
+     */
+    boolean nextLine() throws IOException {
+        if (pushedBack) {
+            pushedBack = false;
+            cursor = lineStart;
+            return true;
+        }
+        int end = indexOfNewLine(position);
+        while (end < 0 && in != null) {
+            if (!fill()) {
+                break;
+            }
+            end = indexOfNewLine(position);
+        }
+        if (position >= limit && end < 0) {
+            return false;
+        }
+
+        lineStart = position;
+        lineEnd = end < 0 ? limit : end;
+        position = end < 0 ? limit : end + 1;
+        if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+        cursor = lineStart;
+        return true;
+    }
+
+    /**
+     * La ligne courante sera rendue à nouveau par le prochain nextLine()
+     */
+    void pushBack() {
+        pushedBack = true;
+    }
+
+    private int indexOfNewLine(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Garder la ligne en cours en tête du tampon (agrandi si besoin) et lire la suite
+    private boolean fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        } else if (remaining == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        position = 0;
+        limit = remaining;
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * La ligne commence-t-elle par tag ? Si oui, le curseur de champ est placé après
+     */
+    boolean startRecord(byte[] tag) {
+        if (lineEnd - lineStart < tag.length
+                || !Arrays.equals(buffer, lineStart, lineStart + tag.length, tag, 0, tag.length)) {
+            return false;
+        }
+        cursor = lineStart + tag.length;
+        return true;
+    }
+
+    boolean isSeparator() {
+        return lineEnd - lineStart == 3
+                && buffer[lineStart] == '-' && buffer[lineStart + 1] == '-' && buffer[lineStart + 2] == '-';
+    }
+
+    String lineText() {
+        return text(lineStart, lineEnd);
+    }
+
+    // ==================== CHAMPS ====================
+
+    /**
+     * Reste-t-il un champ sur la ligne (éventuellement vide) ?
+     */
+    boolean hasField() {
+        return cursor <= lineEnd;
+    }
+
+    private int fieldEnd() {
+        int end = cursor;
+        while (end < lineEnd && buffer[end] != '|') {
+            end++;
+        }
+        return end;
+    }
+
+    // Passer le séparateur ; au-delà du dernier champ, cursor = lineEnd + 1
+    private void advance(int end) {
+        cursor = end + 1;
+    }
+
+    void skipField() {
+        advance(fieldEnd());
+    }
+
+    /**
+     * Champ suivant en texte ; null s'il est absent ou vide
+     */
+    String nextString() {
+        if (!hasField()) {
+            return null;
+        }
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        return end == start ? null : text(start, end);
+    }
+
+    /**
+     * Champ suivant comparé aux constantes known (renvoyée telle quelle si égale) ;
+     * null si le champ est absent ou vide
+     */
+    String nextToken(String[] known) {
+        if (!hasField()) {
+            return null;
+        }
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        if (end == start) {
+            return null;
+        }
+        for (String candidate : known) {
+            if (asciiEquals(start, end, candidate)) {
+                return candidate;
+            }
+        }
+        return new String(buffer, start, end - start, CHARSET);
+    }
+
+    /**
+     * Champ suivant comme constante d'énumération ; fallback si absent, vide ou inconnu
+     */
+    <E extends Enum<E>> E nextEnum(E[] values, E fallback) {
+        if (!hasField()) {
+            return fallback;
+        }
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        for (E value : values) {
+            if (asciiEquals(start, end, value.name())) {
+                return value;
+            }
+        }
+        return fallback;
+    }
+
+    boolean nextBoolean(boolean fallback) {
+        if (!hasField()) {
+            return fallback;
+        }
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        if (end - start != 4) {
+            return false;
+        }
+        return (buffer[start] | 0x20) == 't' && (buffer[start + 1] | 0x20) == 'r'
+                && (buffer[start + 2] | 0x20) == 'u' && (buffer[start + 3] | 0x20) == 'e';
+    }
+
+    int nextInt() {
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        int i = start;
+        boolean negative = i < end && buffer[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Entier attendu: \"" + text(start, end) + "\"");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Entier attendu: \"" + text(start, end) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Entier attendu: \"" + text(start, end) + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Montant "350.0" en centimes ; notation scientifique ou plus de deux
+     * décimales : repli sur Double.parseDouble, arrondi comme Math.round(prix * 100)
+     */
+    long nextCents() {
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        long units = 0;
+        int i = start;
+        while (i < end && buffer[i] >= '0' && buffer[i] <= '9' && i - start < 15) {
+            units = units * 10 + (buffer[i++] - '0');
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && buffer[i] == '.') {
+            i++;
+            while (i < end && buffer[i] >= '0' && buffer[i] <= '9' && fractionDigits < 2) {
+                fraction = fraction * 10 + (buffer[i++] - '0');
+                fractionDigits++;
+            }
+            // Zéros finaux au-delà des centimes : sans effet sur l'arrondi
+            while (i < end && buffer[i] == '0') {
+                i++;
+            }
+        }
+        if (i != end || i == start) {
+            return Math.round(Double.parseDouble(text(start, end)) * 100);
+        }
+        return units * 100 + (fractionDigits == 1 ? fraction * 10 : fraction);
+    }
+
+    /**
+     * Date dd/MM/yyyy HH:mm lue par positions fixes ; null si absente ou invalide
+     */
+    LocalDateTime nextDateTime() {
+        if (!hasField()) {
+            return null;
+        }
+        int start = cursor;
+        int end = fieldEnd();
+        advance(end);
+        if (end - start != DATE_LENGTH || buffer[start + 2] != '/' || buffer[start + 5] != '/'
+                || buffer[start + 10] != ' ' || buffer[start + 13] != ':') {
+            return null;
+        }
+        int day = digits(start, 2);
+        int month = digits(start + 3, 2);
+        int year = digits(start + 6, 4);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        if ((day | month | year | hour | minute) < 0) {
+            return null;
+        }
+        // Comme DateTimeFormatter (résolution SMART) : 29-31 ramené au dernier jour du mois
+        if (day > 28 && day <= 31 && month >= 1 && month <= 12) {
+            day = Math.min(day, Month.of(month).length(Year.isLeap(year)));
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // Valeur de count chiffres à partir de offset, -1 si un caractère n'est pas un chiffre
+    private int digits(int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // ==================== ARTICLES ====================
+
+    /**
+     * Lire les champs REFERENCE|PRICE|QUANTITY d'une ligne ITEM: et l'ajouter à order
+     */
+    void readItem(Order order) {
+        int refStart = cursor;
+        int refEnd = fieldEnd();
+        advance(refEnd);
+        long priceCents = nextCents();
+        int quantity = nextInt();
+        order.addItem(dish(refStart, refEnd, priceCents), quantity);
+    }
+
+    private MenuIt dish(int start, int end, long priceCents) {
+        int hash = (int) (priceCents ^ (priceCents >>> 32));
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (DISH_CACHE_SIZE - 1);
+
+        byte[] cached = dishRefs[slot];
+        if (cached != null && dishCents[slot] == priceCents
+                && Arrays.equals(buffer, start, end, cached, 0, cached.length)) {
+            return dishItems[slot];
+        }
+        MenuIt item = MenuRegistry.getInstance().resolve(text(start, end), priceCents);
+        dishRefs[slot] = Arrays.copyOfRange(buffer, start, end);
+        dishCents[slot] = priceCents;
+        dishItems[slot] = item;
+        return item;
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private boolean asciiEquals(int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (buffer[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String text(int start, int end) {
+        return new String(buffer, start, end - start, CHARSET);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
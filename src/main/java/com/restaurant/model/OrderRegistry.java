@@ -0,0 +1,106 @@
+package com.restaurant.model;
+
+import com.restaurant.model.order.Order;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registre concurrent des commandes, indexé par id et partitionné par statut
+ *
+ * Les listes sont lues sans verrou (maps concurrentes triées par id, donc par
+ * ordre de création). Les écritures sur une même commande sont sérialisées par
+ * un verrou choisi parmi STRIPES selon son id : deux commandes différentes
+ * changent de statut en parallèle dans la plupart des cas.
+ *
+ * Contrat happens-before : ce qu'un thread fait sur une commande avant add()
+ * est visible via tous les accesseurs. Ce qu'il fait pendant transition() n'est
+ * garanti visible que via findOrder() (lu sous le verrou de la commande) et via
+ * getOrdersByStatus() du nouveau statut (la commande y est republiée) ; les
+ * autres listes peuvent montrer une commande en cours de transition, à relire
+ * avec findOrder() si son état exact compte. Les commandes enregistrées ne
+ * doivent donc être modifiées qu'au travers de ce registre.
+ *
+ * Un troisième index trie les commandes par date (clé OrderPage.timeKey) pour
+ * les requêtes paginées de l'historique, un quatrième les regroupe par client.
+ */
+public class OrderRegistry {
+    private static final int STRIPES = 16;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final ConcurrentSkipListMap<Integer, Order> ordersById = new ConcurrentSkipListMap<>();
+    private final Map<Order.OrderStatus, ConcurrentSkipListMap<Integer, Order>> ordersByStatus =
+            new EnumMap<>(Order.OrderStatus.class);
+    private final ConcurrentSkipListMap<Long, Order> ordersByTime = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentSkipListMap<Integer, Order>> ordersByClient = new ConcurrentHashMap<>();
+
+    public OrderRegistry() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            ordersByStatus.put(status, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    private Object lockFor(Order order) {
+        return locks[Math.floorMod(order.getOrderId(), STRIPES)];
+    }
+
+    public void add(Order order) {
+        synchronized (lockFor(order)) {
+            ordersById.put(order.getOrderId(), order);
+            ordersByStatus.get(order.getStatus()).put(order.getOrderId(), order);
+            ordersByTime.put(OrderPage.timeKey(order), order);
+            if (order.hasClient()) {
+                ordersByClient.computeIfAbsent(order.getClientEmail(), email -> new ConcurrentSkipListMap<>())
+                        .put(order.getOrderId(), order);
+            }
+        }
+    }
+
+    /**
+     * Appliquer une transition de statut et déplacer la commande de partition
+     */
+    public void transition(Order order, Runnable transition) {
+        synchronized (lockFor(order)) {
+            ordersByStatus.get(order.getStatus()).remove(order.getOrderId());
+            transition.run();
+            ordersByStatus.get(order.getStatus()).put(order.getOrderId(), order);
+        }
+    }
+
+    public Order findOrder(int orderId) {
+        synchronized (locks[Math.floorMod(orderId, STRIPES)]) {
+            return ordersById.get(orderId);
+        }
+    }
+
+    public List<Order> getOrders() {
+        return new ArrayList<>(ordersById.values());
+    }
+
+    public List<Order> getOrdersByStatus(Order.OrderStatus status) {
+        return new ArrayList<>(ordersByStatus.get(status).values());
+    }
+
+    public List<Order> getOrdersByClient(String email) {
+        ConcurrentSkipListMap<Integer, Order> orders = ordersByClient.get(email);
+        return orders == null ? new ArrayList<>() : new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Commandes de clé dans [fromKey, toKey[, de la plus récente à la plus ancienne (vue, sans copie)
+     */
+    public NavigableMap<Long, Order> getOrdersByTimeDescending(long fromKey, long toKey) {
+        return ordersByTime.subMap(fromKey, true, toKey, false).descendingMap();
+    }
+
+    public int size() {
+        return ordersById.size();
+    }
+}
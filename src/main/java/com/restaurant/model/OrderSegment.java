@@ -0,0 +1,252 @@
+package com.restaurant.model;
+
+import com.restaurant.model.order.Order;
+import com.restaurant.model.order.OrderItem;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Segment journalier du store des commandes (une entrée du manifeste)
+ *
+ * Un segment regroupe les commandes passées un même jour. Chaud, il peut encore
+ * changer et il est chargé au démarrage ; scellé, il est immuable et son résumé
+ * (bornes d'ids, ventes, plats, clients) permet de savoir s'il faut l'ouvrir
+ * sans le lire. Un segment scellé ancien est compressé (CompressedSegment).
+ * BinaryOrderStore décrit de même, sans fichier propre, les commandes
+ * clôturées d'un jour dans orders.bin.
+ *
+ * Modifié sous le verrou du store mais lu sans verrou par les requêtes : les
+ * drapeaux sont volatiles et le résumé est un objet immuable remplacé d'un bloc.
+ */
+public class OrderSegment {
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final LocalDate day;
+    private volatile boolean sealed;
+    private volatile boolean loaded; // Commandes en mémoire depuis le démarrage
+    private volatile boolean compressed; // Fichier .blk (CompressedSegment) au lieu du texte
+    private volatile int version;    // Incrémenté à chaque réécriture du fichier (sous verrou)
+
+    // Résumé, à jour pour un segment scellé ; publié avant le drapeau sealed
+    private volatile Summary summary = Summary.EMPTY;
+
+    public OrderSegment(LocalDate day) {
+        this.day = day;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getFileName() {
+        return "segment-" + day.format(FILE_DATE) + ".txt";
+    }
+
+    public String getCompressedFileName() {
+        return "segment-" + day.format(FILE_DATE) + ".blk";
+    }
+
+    static LocalDate parseDay(String text) {
+        return LocalDate.parse(text, FILE_DATE);
+    }
+
+    String formatDay() {
+        return day.format(FILE_DATE);
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    void rewritten() {
+        version++;
+    }
+
+    /**
+     * Clés OrderPage.timeKey des commandes du segment : [getStartKey(), getEndKey()[
+     */
+    public long getStartKey() {
+        return OrderPage.timeBound(day.atStartOfDay());
+    }
+
+    public long getEndKey() {
+        return OrderPage.timeBound(day.plusDays(1).atStartOfDay());
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return (from == null || day.plusDays(1).atStartOfDay().isAfter(from))
+                && (to == null || day.atStartOfDay().isBefore(to));
+    }
+
+    public boolean mayContain(int orderId) {
+        Summary current = summary;
+        return current.orderCount > 0 && orderId >= current.minOrderId && orderId <= current.maxOrderId;
+    }
+
+    public boolean hasClient(String email) {
+        return summary.clients.contains(email);
+    }
+
+    public int getOrderCount() {
+        return summary.orderCount;
+    }
+
+    public int getMinOrderId() {
+        return summary.minOrderId;
+    }
+
+    public int getMaxOrderId() {
+        return summary.maxOrderId;
+    }
+
+    public int getPaidCount() {
+        return summary.paidCount;
+    }
+
+    public long getTotalCents() {
+        return summary.totalCents;
+    }
+
+    public Map<String, Integer> getDishCounts() {
+        return summary.dishCounts;
+    }
+
+    public Set<String> getClients() {
+        return summary.clients;
+    }
+
+    /**
+     * Sceller le segment : son contenu ne changera plus, le résumé est calculé sur orders
+     */
+    void seal(List<Order> orders) {
+        summary = Summary.of(orders);
+        sealed = true;
+    }
+
+    void unseal() {
+        sealed = false;
+    }
+
+    /**
+     * Un segment peut être scellé quand son jour est passé et que toutes ses commandes sont clôturées
+     */
+    static boolean canSeal(LocalDate day, List<Order> orders, LocalDate today) {
+        if (!day.isBefore(today)) {
+            return false;
+        }
+        for (Order order : orders) {
+            if (!OrderArchive.isClosed(order)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restaurer le résumé lu dans le manifeste
+     */
+    void restoreSummary(boolean sealed, int orderCount, int minOrderId, int maxOrderId,
+                        int paidCount, long totalCents) {
+        Summary current = summary;
+        summary = new Summary(orderCount, minOrderId, maxOrderId, paidCount, totalCents,
+                current.dishCounts, current.clients);
+        this.sealed = sealed;
+    }
+
+    void restoreDishCounts(Map<String, Integer> dishCounts) {
+        Summary current = summary;
+        summary = new Summary(current.orderCount, current.minOrderId, current.maxOrderId,
+                current.paidCount, current.totalCents, dishCounts, current.clients);
+    }
+
+    void restoreClients(Set<String> clients) {
+        Summary current = summary;
+        summary = new Summary(current.orderCount, current.minOrderId, current.maxOrderId,
+                current.paidCount, current.totalCents, current.dishCounts, clients);
+    }
+
+    /**
+     * Résumé immuable d'un segment (copié à la construction)
+     */
+    private static final class Summary {
+        static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, Map.of(), Set.of());
+
+        final int orderCount;
+        final int minOrderId;
+        final int maxOrderId;
+        final int paidCount;
+        final long totalCents;
+        final Map<String, Integer> dishCounts;
+        final Set<String> clients;
+
+        Summary(int orderCount, int minOrderId, int maxOrderId, int paidCount, long totalCents,
+                Map<String, Integer> dishCounts, Set<String> clients) {
+            this.orderCount = orderCount;
+            this.minOrderId = minOrderId;
+            this.maxOrderId = maxOrderId;
+            this.paidCount = paidCount;
+            this.totalCents = totalCents;
+            this.dishCounts = Collections.unmodifiableMap(new LinkedHashMap<>(dishCounts));
+            this.clients = Collections.unmodifiableSet(new HashSet<>(clients));
+        }
+
+        static Summary of(List<Order> orders) {
+            int orderCount = 0;
+            int minOrderId = Integer.MAX_VALUE;
+            int maxOrderId = Integer.MIN_VALUE;
+            int paidCount = 0;
+            long totalCents = 0;
+            Map<String, Integer> dishCounts = new LinkedHashMap<>();
+            Set<String> clients = new HashSet<>();
+            for (Order order : orders) {
+                orderCount++;
+                minOrderId = Math.min(minOrderId, order.getOrderId());
+                maxOrderId = Math.max(maxOrderId, order.getOrderId());
+                if (order.hasClient()) {
+                    clients.add(order.getClientEmail());
+                }
+                if (!order.isPaid()) {
+                    continue;
+                }
+                paidCount++;
+                totalCents += order.getTotalCents();
+                for (int i = 0; i < order.getItemCount(); i++) {
+                    OrderItem item = order.getItem(i);
+                    dishCounts.merge(item.getMenuItem().getName(), item.getQuantity(), Integer::sum);
+                }
+            }
+            if (orderCount == 0) {
+                minOrderId = 0;
+                maxOrderId = 0;
+            }
+            return new Summary(orderCount, minOrderId, maxOrderId, paidCount, totalCents, dishCounts, clients);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.restaurant.model;
+
+import com.restaurant.model.order.Order;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Contrat commun des backends de persistance des commandes
+ * Implémenté par SegmentedOrderStore (segments journaliers, voir SegmentStore),
+ * OrdersManager (texte) et BinaryOrderStore (binaire)
+ */
+public interface OrderStore {
+
+    /**
+     * Charger toutes les commandes persistées
+     */
+    List<Order> loadOrders();
+
+    /**
+     * Ajouter une commande payée au store
+     * Le futur se termine quand la commande est durable
+     */
+    CompletableFuture<Void> appendOrder(Order order);
+
+    /**
+     * Persister le nouveau statut d'une commande
+     */
+    void appendStatusChange(Order order);
+
+    /**
+     * Indique si le store doit être réécrit à partir des commandes en mémoire
+     */
+    boolean needsCompaction();
+
+    /**
+     * Réécrire le store à partir des commandes en mémoire
+     */
+    void compact(List<Order> orders);
+}
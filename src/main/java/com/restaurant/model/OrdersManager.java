@@ -2,23 +2,58 @@ package com.restaurant.model;
 
 import com.restaurant.model.order.Order;
 import com.restaurant.model.order.OrderItem;
-import com.restaurant.model.menu.MenuIt;
+import com.restaurant.model.menu.MenuRegistry;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * PATRON SINGLETON - Gestion de la persistance des commandes
  * Sauvegarde et charge les commandes depuis/vers un fichier
+ *
+ * orders.txt est un instantané (snapshot) des commandes ; les changements de
+ * statut sont ajoutés au journal orders.wal (write-ahead log) sous forme d'un
+ * petit enregistrement. Le journal est rejoué au chargement puis fusionné dans
+ * le snapshot lors d'un compactage périodique.
+ *
+ * Les ajouts passent par un GroupCommitWriter : les commandes soumises dans
+ * une même fenêtre partagent un seul write + fsync.
+ *
+ * Au démarrage, le snapshot est analysé en parallèle (ParallelRecordParser),
+ * chaque ligne étant lue en place par un OrderRecordCodec.
  */
-public class OrdersManager {
+public class OrdersManager implements OrderStore {
     private static OrdersManager instance;
-    private static final String ORDERS_FILE = "orders.txt";
+    private static final String ORDERS_FILE = DataFiles.path("orders.txt");
+    private static final String JOURNAL_FILE = DataFiles.path("orders.wal");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    // Nombre d'entrées du journal au-delà duquel le snapshot est réécrit
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final String[] PAYMENT_METHODS = {"PAID", "ONSITE"};
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    // Écrivains group commit, ouverts au premier ajout
+    private GroupCommitWriter ordersWriter;
+    private GroupCommitWriter journalWriter;
+    private int journalEntries;
+    // Vrai si des ids en double ont été renumérotés au chargement
+    private boolean snapshotStale;
 
     private OrdersManager() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeWriters));
         System.out.println("📦 OrdersManager initialisé");
     }
 
@@ -35,46 +70,84 @@ public class OrdersManager {
 
     /**
      * Sauvegarder toutes les commandes dans le fichier
+     *
+     * Le snapshot est écrit dans un fichier temporaire forcé sur disque puis
+     * renommé atomiquement : un crash en cours d'écriture laisse l'ancien intact.
+     * L'écrivain des ajouts, ouvert sur l'ancien fichier, est ensuite rouvert.
      */
-    public void saveOrders(List<Order> orders) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ORDERS_FILE))) {
+    public synchronized void saveOrders(List<Order> orders) {
+        File tmp = new File(ORDERS_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()))) {
             for (Order order : orders) {
                 if (order.isPaid()) {
-                    // Format: ORDER_ID|DATE|TOTAL|PAID|PAYMENT_METHOD|STATUS|PROCESSED_TIME
-                    String processedTime = order.getProcessedTime() != null ?
-                            order.getProcessedTime().format(DATE_FORMATTER) : "";
-
-                    writer.write("ORDER:" + order.getOrderId() + "|" +
-                            order.getOrderTime().format(DATE_FORMATTER) + "|" +
-                            order.getTotal() + "|" + order.isPaid() + "|" +
-                            order.getPaymentMethod() + "|" +
-                            order.getStatus().name() + "|" +
-                            processedTime);
-                    writer.newLine();
-
-                    // Items: ITEM|NAME|PRICE|QUANTITY
-                    for (OrderItem item : order.getItems()) {
-                        writer.write("ITEM:" + item.getMenuItem().getName() + "|" +
-                                item.getMenuItem().getPrice() + "|" +
-                                item.getQuantity());
-                        writer.newLine();
-                    }
-
-                    writer.write("---"); // Séparateur de commandes
-                    writer.newLine();
+                    writer.write(formatOrder(order));
                 }
             }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de la sauvegarde des commandes: " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+
+        try {
+            Files.move(tmp.toPath(), new File(ORDERS_FILE).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (ordersWriter != null) {
+                ordersWriter.close();
+                ordersWriter = null;
+            }
             System.out.println("✅ " + orders.size() + " commande(s) sauvegardée(s) dans " + ORDERS_FILE);
         } catch (IOException e) {
             System.out.println("❌ Erreur lors de la sauvegarde des commandes: " + e.getMessage());
+            tmp.delete();
         }
     }
 
+    /**
+     * Formater une commande en enregistrement texte (ORDER:, ITEM:..., ---)
+     * Format partagé avec les segments de SegmentedOrderStore
+     */
+    static String formatOrder(Order order) {
+        StringBuilder sb = new StringBuilder();
+        String newLine = System.lineSeparator();
+        MenuRegistry menuRegistry = MenuRegistry.getInstance();
+
+        // Format: ORDER_ID|DATE|TOTAL|PAID|PAYMENT_METHOD|STATUS|PROCESSED_TIME|CLIENT_EMAIL
+        String processedTime = order.getProcessedTime() != null ?
+                order.getProcessedTime().format(DATE_FORMATTER) : "";
+
+        sb.append("ORDER:").append(order.getOrderId()).append("|")
+                .append(order.getOrderTime().format(DATE_FORMATTER)).append("|")
+                .append(order.getTotal()).append("|").append(order.isPaid()).append("|")
+                .append(order.getPaymentMethod()).append("|")
+                .append(order.getStatus().name()).append("|")
+                .append(processedTime).append("|")
+                .append(order.hasClient() ? order.getClientEmail() : "").append(newLine);
+
+        // Items: ITEM|#ID|PRICE|QUANTITY (NAME pour un plat sans id)
+        for (OrderItem item : order.getItemsView()) {
+            sb.append("ITEM:").append(menuRegistry.reference(item.getMenuItem())).append("|")
+                    .append(item.getMenuItem().getPrice()).append("|")
+                    .append(item.getQuantity()).append(newLine);
+        }
+
+        sb.append("---").append(newLine); // Séparateur de commandes
+        return sb.toString();
+    }
+
     /**
      * Charger toutes les commandes depuis le fichier
      */
+    @Override
     public List<Order> loadOrders() {
         List<Order> orders = new ArrayList<>();
+        Map<Integer, Order> ordersById = new HashMap<>();
+        List<Order> duplicates = new ArrayList<>();
+        journalEntries = 0;
+        snapshotStale = false;
         File file = new File(ORDERS_FILE);
 
         if (!file.exists()) {
@@ -82,110 +155,347 @@ public class OrdersManager {
             return orders;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            Order currentOrder = null;
+        Journal journal = Journal.read(JOURNAL_FILE);
+        journalEntries = journal.entries;
+
+        try {
+            // Analyse parallèle par morceaux, puis journal et doublons dans l'ordre du fichier
+            orders.addAll(ParallelRecordParser.parse(file, OrdersManager::readOrders));
+            for (Order order : orders) {
+                // Anciens fichiers : un id a pu être réattribué à une autre commande
+                if (ordersById.putIfAbsent(order.getOrderId(), order) != null) {
+                    duplicates.add(order);
+                } else {
+                    journal.apply(order);
+                }
+            }
+
+            System.out.println("✅ " + orders.size() + " commande(s) chargée(s) depuis " + ORDERS_FILE);
+
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors du chargement des commandes: " + e.getMessage());
+        }
+
+        // Les doublons reçoivent un nouvel id (au-delà de tous les ids chargés) ; le snapshot sera réécrit
+        for (Order duplicate : duplicates) {
+            Order renumbered = renumber(duplicate);
+            orders.set(orders.indexOf(duplicate), renumbered);
+            System.out.println("⚠️ Id de commande en double #" + duplicate.getOrderId() +
+                    " renuméroté en #" + renumbered.getOrderId());
+            snapshotStale = true;
+        }
+        return orders;
+    }
+
+    /**
+     * Parcourir les commandes sans les charger toutes en mémoire (rapports, exports)
+     *
+     * Chaque commande est lue à la demande, journal des statuts appliqué ; le
+     * fichier est fermé à la fermeture du stream, à utiliser dans un
+     * try-with-resources. Les ids en double ne sont pas renumérotés. Prévu pour
+     * les traitements hors ligne : un compactage pendant la lecture réécrit le fichier.
+     */
+    public Stream<Order> streamOrders() {
+        File file = new File(ORDERS_FILE);
+        if (!file.exists()) {
+            return Stream.empty();
+        }
+
+        Journal journal = Journal.read(JOURNAL_FILE);
+        InputStream in;
+        try {
+            in = new FileInputStream(file);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de l'ouverture des commandes: " + e.getMessage());
+            return Stream.empty();
+        }
+        OrderRecordCodec codec = new OrderRecordCodec(in);
 
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("ORDER:")) {
-                    // Créer nouvelle commande
-                    String[] parts = line.substring(6).split("\\|");
-                    currentOrder = new Order();
+        Spliterator<Order> orders = new Spliterators.AbstractSpliterator<Order>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Order> action) {
+                Order order;
+                try {
+                    order = readOrder(codec);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (order == null) {
+                    return false;
+                }
+                journal.apply(order);
+                action.accept(order);
+                return true;
+            }
+        };
+        return StreamSupport.stream(orders, false).onClose(() -> {
+            try {
+                in.close();
+            } catch (IOException e) {
+                System.out.println("❌ Erreur fermeture de " + ORDERS_FILE + ": " + e.getMessage());
+            }
+        });
+    }
 
-                    // Restaurer le paymentMethod si disponible (index 4)
-                    if (parts.length > 4 && !parts[4].isEmpty()) {
-                        currentOrder.setPaymentMethod(parts[4]);
+    static void readOrders(OrderRecordCodec codec, List<Order> out) throws IOException {
+        Order order;
+        while ((order = readOrder(codec)) != null) {
+            out.add(order);
+        }
+    }
+
+    /**
+     * Lire l'enregistrement suivant (ORDER:, ITEM:..., ---) ; null en fin de fichier
+     */
+    private static Order readOrder(OrderRecordCodec codec) throws IOException {
+        Order currentOrder = null;
+        while (codec.nextLine()) {
+            if (codec.startRecord(OrderRecordCodec.ORDER)) {
+                if (currentOrder != null) {
+                    // Enregistrement sans séparateur : la ligne sera relue pour la commande suivante
+                    codec.pushBack();
+                    return currentOrder;
+                }
+                // Format: ORDER_ID|DATE|TOTAL|PAID|PAYMENT_METHOD|STATUS|PROCESSED_TIME|CLIENT_EMAIL
+                currentOrder = restoreOrder(codec);
+
+            } else if (currentOrder != null && codec.startRecord(OrderRecordCodec.ITEM)) {
+                // Plat du menu (par id, ou par nom pour les anciens fichiers)
+                codec.readItem(currentOrder);
+
+            } else if (currentOrder != null && codec.isSeparator()) {
+                // Fin de la commande courante
+                return currentOrder;
+            }
+        }
+        return currentOrder;
+    }
+
+    /**
+     * Reconstituer une commande avec son id, sa date et son paiement d'origine
+     */
+    private static Order restoreOrder(OrderRecordCodec codec) {
+        int orderId = codec.nextInt();
+
+        // Date illisible : dater du chargement
+        LocalDateTime orderTime = codec.nextDateTime();
+        if (orderTime == null) {
+            orderTime = LocalDateTime.now();
+        }
+
+        // Total recalculé à partir des articles
+        codec.skipField();
+
+        // Seules les commandes payées sont sauvegardées
+        boolean paid = codec.nextBoolean(true);
+
+        // paymentMethod, status et processedTime si disponibles
+        String paymentMethod = codec.nextToken(PAYMENT_METHODS);
+        if (paymentMethod == null) {
+            paymentMethod = "PAID";
+        }
+        Order.OrderStatus status = codec.nextEnum(STATUSES, Order.OrderStatus.PENDING);
+        LocalDateTime processedTime = codec.nextDateTime();
+
+        Order order = Order.restore(orderId, orderTime, processedTime, status, paid, paymentMethod);
+
+        // Restaurer le client si disponible
+        String clientEmail = codec.nextString();
+        if (clientEmail != null) {
+            order.setClientEmail(clientEmail);
+        }
+        return order;
+    }
+
+    private static Order renumber(Order order) {
+        Order renumbered = Order.restore(Order.nextOrderId(), order.getOrderTime(), order.getProcessedTime(),
+                order.getStatus(), order.isPaid(), order.getPaymentMethod());
+        renumbered.setClientEmail(order.getClientEmail());
+        order.forEachItem(item -> renumbered.addItem(item.getMenuItem(), item.getQuantity()));
+        return renumbered;
+    }
+
+    /**
+     * Changements de statut du journal, réduits au dernier état de chaque commande
+     * (orders.wal, et journal des segments de SegmentedOrderStore)
+     */
+    static class Journal {
+        // ORDER_ID -> {STATUS, PROCESSED_TIME} (dernier statut, dernière date non vide)
+        final Map<Integer, String[]> changes = new HashMap<>();
+        int entries;
+
+        void apply(Order order) {
+            String[] change = changes.get(order.getOrderId());
+            if (change == null) {
+                return;
+            }
+            order.setStatus(Order.OrderStatus.valueOf(change[0]));
+            if (change[1] != null) {
+                order.setProcessedTime(LocalDateTime.parse(change[1], DATE_FORMATTER));
+            }
+        }
+
+        /**
+         * Retenir un changement écrit depuis la lecture du journal
+         */
+        void record(Order order) {
+            String[] change = changes.computeIfAbsent(order.getOrderId(), id -> new String[2]);
+            change[0] = order.getStatus().name();
+            if (order.getProcessedTime() != null) {
+                change[1] = order.getProcessedTime().format(DATE_FORMATTER);
+            }
+            entries++;
+        }
+
+        /**
+         * Lire un journal des changements de statut (borné par le compactage)
+         */
+        static Journal read(String fileName) {
+            Journal journal = new Journal();
+            File file = new File(fileName);
+            if (!file.exists()) {
+                return journal;
+            }
+
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("STATUS:")) {
+                        continue;
                     }
 
-                    // Restaurer le status si disponible (index 5)
-                    if (parts.length > 5 && !parts[5].isEmpty()) {
-                        try {
-                            Order.OrderStatus status = Order.OrderStatus.valueOf(parts[5]);
-                            currentOrder.setStatus(status);
-                        } catch (IllegalArgumentException e) {
-                            // Si le statut est invalide, garder PENDING par défaut
-                        }
+                    // Format: ORDER_ID|STATUS|PROCESSED_TIME
+                    String[] parts = line.substring(7).split("\\|");
+                    journal.entries++;
+                    try {
+                        Order.OrderStatus.valueOf(parts[1]);
+                    } catch (IllegalArgumentException e) {
+                        // Statut inconnu, ignorer l'enregistrement
+                        continue;
                     }
 
-                    // Restaurer processedTime si disponible (index 6)
-                    if (parts.length > 6 && !parts[6].isEmpty()) {
+                    String[] change = journal.changes.computeIfAbsent(Integer.parseInt(parts[0]),
+                            id -> new String[2]);
+                    change[0] = parts[1];
+                    if (parts.length > 2 && !parts[2].isEmpty()) {
                         try {
-                            LocalDateTime processedTime = LocalDateTime.parse(parts[6], DATE_FORMATTER);
-                            currentOrder.setProcessedTime(processedTime);
+                            LocalDateTime.parse(parts[2], DATE_FORMATTER);
+                            change[1] = parts[2];
                         } catch (Exception e) {
                             // Si erreur de parsing, ignorer
                         }
                     }
-
-                    orders.add(currentOrder);
-
-                } else if (line.startsWith("ITEM:") && currentOrder != null) {
-                    // Ajouter item à la commande courante
-                    String[] parts = line.substring(5).split("\\|");
-                    String itemName = parts[0];
-                    double itemPrice = Double.parseDouble(parts[1]);
-                    int quantity = Integer.parseInt(parts[2]);
-
-                    // Recréer MenuItem
-                    MenuIt menuItem = new MenuIt(itemName, "", itemPrice);
-                    currentOrder.addItem(menuItem, quantity);
-
-                } else if (line.equals("---")) {
-                    // Fin de la commande courante
-                    if (currentOrder != null) {
-                        // Simuler le paiement pour marquer comme payé
-                        currentOrder.setPaymentStrategy(new com.restaurant.model.payment.CashPaymentStrategy());
-                        currentOrder.processPayment();
-                    }
-                    currentOrder = null;
                 }
+
+                System.out.println("✅ " + journal.entries + " changement(s) de statut lu(s) depuis " + fileName);
+
+            } catch (IOException | RuntimeException e) {
+                System.out.println("❌ Erreur lors de la lecture du journal: " + e.getMessage());
             }
+            return journal;
+        }
+    }
 
-            System.out.println("✅ " + orders.size() + " commande(s) chargée(s) depuis " + ORDERS_FILE);
+    /**
+     * Enregistrement du journal pour le nouveau statut d'une commande
+     */
+    static String formatStatusChange(Order order) {
+        // Format: ORDER_ID|STATUS|PROCESSED_TIME
+        String processedTime = order.getProcessedTime() != null ?
+                order.getProcessedTime().format(DATE_FORMATTER) : "";
+        return "STATUS:" + order.getOrderId() + "|" + order.getStatus().name() + "|" +
+                processedTime + System.lineSeparator();
+    }
+
+    /**
+     * Ajouter un changement de statut au journal (coût constant)
+     */
+    @Override
+    public synchronized void appendStatusChange(Order order) {
+        journalWriter().submit(formatStatusChange(order))
+                .exceptionally(e -> {
+                    System.out.println("❌ Erreur lors de l'écriture du journal: " + e.getMessage());
+                    return null;
+                });
+        journalEntries++;
+    }
+
+    /**
+     * Indique si le snapshot doit être réécrit (journal trop long ou ids obsolètes)
+     */
+    @Override
+    public synchronized boolean needsCompaction() {
+        return snapshotStale || journalEntries >= COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Réécrire le snapshot à partir des commandes en mémoire et vider le journal
+     */
+    @Override
+    public synchronized void compact(List<Order> orders) {
+        // Les ajouts déjà soumis doivent être sur disque avant la réécriture
+        ordersWriter().flush();
+        journalWriter().flush();
+        saveOrders(orders);
 
+        try {
+            journalWriter().truncate();
+            journalEntries = 0;
+            snapshotStale = false;
+            System.out.println("✅ Journal " + JOURNAL_FILE + " compacté");
         } catch (IOException e) {
-            System.out.println("❌ Erreur lors du chargement des commandes: " + e.getMessage());
+            System.out.println("❌ Erreur lors du compactage du journal: " + e.getMessage());
         }
-
-        return orders;
     }
 
     /**
      * Ajouter une commande au fichier (ajout incrémental)
      */
-    public void appendOrder(Order order) {
+    @Override
+    public CompletableFuture<Void> appendOrder(Order order) {
         if (!order.isPaid()) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ORDERS_FILE, true))) {
-            // Format: ORDER_ID|DATE|TOTAL|PAID|PAYMENT_METHOD|STATUS|PROCESSED_TIME
-            String processedTime = order.getProcessedTime() != null ?
-                    order.getProcessedTime().format(DATE_FORMATTER) : "";
-
-            writer.write("ORDER:" + order.getOrderId() + "|" +
-                    order.getOrderTime().format(DATE_FORMATTER) + "|" +
-                    order.getTotal() + "|" + order.isPaid() + "|" +
-                    order.getPaymentMethod() + "|" +
-                    order.getStatus().name() + "|" +
-                    processedTime);
-            writer.newLine();
-
-            // Items
-            for (OrderItem item : order.getItems()) {
-                writer.write("ITEM:" + item.getMenuItem().getName() + "|" +
-                        item.getMenuItem().getPrice() + "|" +
-                        item.getQuantity());
-                writer.newLine();
-            }
+        return ordersWriter().submit(formatOrder(order))
+                .whenComplete((result, e) -> {
+                    if (e == null) {
+                        System.out.println("✅ Commande #" + order.getOrderId() + " ajoutée au fichier");
+                    } else {
+                        System.out.println("❌ Erreur lors de l'ajout de la commande: " + e.getMessage());
+                    }
+                });
+    }
 
-            writer.write("---");
-            writer.newLine();
+    private synchronized GroupCommitWriter ordersWriter() {
+        if (ordersWriter == null) {
+            ordersWriter = openWriter(ORDERS_FILE);
+        }
+        return ordersWriter;
+    }
+
+    private synchronized GroupCommitWriter journalWriter() {
+        if (journalWriter == null) {
+            journalWriter = openWriter(JOURNAL_FILE);
+        }
+        return journalWriter;
+    }
 
-            System.out.println("✅ Commande #" + order.getOrderId() + " ajoutée au fichier");
+    private synchronized void closeWriters() {
+        if (ordersWriter != null) {
+            ordersWriter.close();
+        }
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+    }
 
+    private static GroupCommitWriter openWriter(String fileName) {
+        try {
+            return new GroupCommitWriter(fileName);
         } catch (IOException e) {
-            System.out.println("❌ Erreur lors de l'ajout de la commande: " + e.getMessage());
+            throw new UncheckedIOException("Impossible d'ouvrir " + fileName, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.restaurant.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lecture parallèle des fichiers d'enregistrements texte terminés par "---"
+ * (orders.txt, client_orders.txt)
+ *
+ * Le fichier est lu en mémoire puis découpé en morceaux qui commencent
+ * toujours juste après une ligne "---" : chaque morceau est un fichier
+ * valide à lui seul. Les morceaux sont analysés sur le ForkJoinPool commun,
+ * chacun par son OrderRecordCodec lisant le tableau en place, et les
+ * résultats concaténés dans l'ordre du fichier.
+ *
+ * -Drestaurant.loadParallelism=N fixe le nombre de threads visé (défaut :
+ * nombre de cœurs) ; 1, ou un petit fichier, lit tout sur le thread appelant.
+ */
+final class ParallelRecordParser {
+    static final String PARALLELISM_PROPERTY = "restaurant.loadParallelism";
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Analyse d'un morceau : ajouter à out les enregistrements lus par codec
+     */
+    interface ChunkParser<T> {
+        void parse(OrderRecordCodec codec, List<T> out) throws IOException;
+    }
+
+    private ParallelRecordParser() {
+    }
+
+    static <T> List<T> parse(File file, ChunkParser<T> parser) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        int[] bounds = split(data, parallelism());
+        try {
+            if (bounds.length == 2) {
+                return parseChunk(data, bounds[0], bounds[1], parser);
+            }
+            return ForkJoinPool.commonPool().invoke(new ChunkTask<>(data, bounds, 0, bounds.length - 1, parser));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int parallelism() {
+        int parallelism = Integer.getInteger(PARALLELISM_PROPERTY, 0);
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Bornes des morceaux : 0, fins de lignes "---" proches des coupures visées, data.length
+     */
+    private static int[] split(byte[] data, int parallelism) {
+        int chunks = Math.min(parallelism * CHUNKS_PER_THREAD, data.length / MIN_CHUNK_BYTES);
+        if (parallelism <= 1 || chunks <= 1) {
+            return new int[] {0, data.length};
+        }
+
+        int[] bounds = new int[chunks + 1];
+        int count = 1;
+        long chunkSize = data.length / chunks;
+        for (int i = 1; i < chunks; i++) {
+            int bound = nextRecordStart(data, (int) Math.max(i * chunkSize, bounds[count - 1]));
+            if (bound >= data.length) {
+                break;
+            }
+            if (bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = data.length;
+        int[] result = new int[count];
+        System.arraycopy(bounds, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Position qui suit la première ligne "---" commençant à from ou après
+     */
+    private static int nextRecordStart(byte[] data, int from) {
+        // Se placer au début de la ligne suivante
+        int position = from;
+        while (position > 0 && position < data.length && data[position - 1] != '\n') {
+            position++;
+        }
+        while (position < data.length) {
+            int end = position;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            int length = end - position;
+            if (length > 0 && data[end - 1] == '\r') {
+                length--;
+            }
+            if (length == 3 && data[position] == '-' && data[position + 1] == '-' && data[position + 2] == '-') {
+                return Math.min(end + 1, data.length);
+            }
+            position = end + 1;
+        }
+        return data.length;
+    }
+
+    private static <T> List<T> parseChunk(byte[] data, int start, int end, ChunkParser<T> parser) {
+        List<T> out = new ArrayList<>();
+        try {
+            parser.parse(new OrderRecordCodec(data, start, end), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    /**
+     * Analyse des morceaux [from, to[ : moitié gauche fourchée, résultats concaténés dans l'ordre
+     */
+    private static class ChunkTask<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] data;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+        private final ChunkParser<T> parser;
+
+        ChunkTask(byte[] data, int[] bounds, int from, int to, ChunkParser<T> parser) {
+            this.data = data;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.parser = parser;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from == 1) {
+                return parseChunk(data, bounds[from], bounds[to], parser);
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask<T> left = new ChunkTask<>(data, bounds, from, middle, parser);
+            left.fork();
+            List<T> right = new ChunkTask<>(data, bounds, middle, to, parser).compute();
+            List<T> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+}
@@ -3,22 +3,82 @@ package com.restaurant.model;
 import com.restaurant.model.menu.*;
 import com.restaurant.model.order.Order;
 import com.restaurant.model.notification.*;
+import java.util.AbstractList;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * PATRON SINGLETON - Gestion centralisée du système de restaurant
  * Une seule instance pour gérer menus, commandes et notifications
+ *
+ * Les commandes sont indexées par id et partitionnées par statut (OrderRegistry) ;
+ * les transitions passent par validateOrder, assignDelivery et setOrderStatus
+ * pour garder les partitions à jour.
+ *
+ * Thread-safe : plusieurs threads de prise de commande peuvent appeler addOrder
+ * en parallèle. Ajouts et changements de statut prennent le verrou de
+ * persistance en lecture ; le compactage le prend en écriture, afin que le
+ * snapshot et le fichier restent cohérents. Il s'exécute sur un thread dédié
+ * pour ne pas bloquer l'appelant (souvent le thread JavaFX).
+ *
+ * Les commandes clôturées restaurées au démarrage vont dans une archive en
+ * colonnes (OrderArchive) plutôt que dans le registre ; les accesseurs et le
+ * snapshot de compactage couvrent les deux.
+ *
+ * L'historique d'un client est servi par l'index par email du registre et de
+ * l'archive : une commande n'est écrite qu'une fois, dans le store canonique.
+ *
+ * Avec le store segmenté, les jours scellés ne sont pas chargés : leurs
+ * résumés alimentent les statistiques et les recherches (date, id, client)
+ * n'ouvrent que les segments qui peuvent contenir le résultat.
  */
 public class RestaurantSystem {
-    private static RestaurantSystem instance;
+    // volatile : publication sûre de l'instance pour le double-checked locking
+    private static volatile RestaurantSystem instance;
+    private static final int KITCHEN_QUEUE_CAPACITY = 1024;
 
     private MenuComponent mainMenu;
-    private List<Order> orders;
+    private final OrderRegistry registry;
+    private OrderArchive archive;
+    private final ReadWriteLock persistenceLock;
+    private final ExecutorService compactor;
+    // Vrai si un compactage est en file : les demandes suivantes s'y regroupent
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
     private OrderSubject orderSubject;
+    private OrderStore orderStore;
+    private SegmentStore segmentStore; // Même store si segmenté, sinon null
+    private StatisticsAggregator statistics;
 
     private RestaurantSystem() {
-        orders = new ArrayList<>();
+        registry = new OrderRegistry();
+        persistenceLock = new ReentrantReadWriteLock();
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        orderStore = createOrderStore();
+        if (orderStore instanceof SegmentStore) {
+            segmentStore = (SegmentStore) orderStore;
+        }
         orderSubject = new OrderSubject();
         initializeMenu();
         initializeObservers();
@@ -36,62 +96,502 @@ public class RestaurantSystem {
         return instance;
     }
 
+    /**
+     * Choisir le backend de persistance : -Drestaurant.orderStore=segmented (défaut)|text|binary
+     */
+    private static OrderStore createOrderStore() {
+        String store = System.getProperty("restaurant.orderStore");
+        if ("binary".equalsIgnoreCase(store)) {
+            return BinaryOrderStore.getInstance();
+        }
+        if ("text".equalsIgnoreCase(store)) {
+            return OrdersManager.getInstance();
+        }
+        return SegmentedOrderStore.getInstance();
+    }
+
+    /**
+     * Segments froids du store segmenté ; aucun avec les autres backends
+     */
+    private List<OrderSegment> coldSegments() {
+        return segmentStore != null ? segmentStore.getColdSegments() : Collections.emptyList();
+    }
+
     private void initializeMenu() {
         mainMenu = new MenuCategory("Menu Principal", "Tous nos plats");
 
         MenuCategory entrees = new MenuCategory("Entrées", "Pour commencer");
-        entrees.add(new MenuIt("Chorba", "Soupe traditionnelle algérienne", 350));
-        entrees.add(new MenuIt("Bourek", "Feuilles farcies à la viande", 250));
-        entrees.add(new MenuIt("Salade Mixte", "Tomates, concombres, oignons", 200));
+        entrees.add(new MenuIt(1, "Chorba", "Soupe traditionnelle algérienne", 350));
+        entrees.add(new MenuIt(2, "Bourek", "Feuilles farcies à la viande", 250));
+        entrees.add(new MenuIt(3, "Salade Mixte", "Tomates, concombres, oignons", 200));
 
         MenuCategory plats = new MenuCategory("Plats Principaux", "Nos spécialités");
-        plats.add(new MenuIt("Couscous", "Couscous traditionnel aux légumes", 800));
-        plats.add(new MenuIt("Tajine", "Tajine de poulet aux olives", 900));
-        plats.add(new MenuIt("Rechta", "Pâtes fraîches sauce blanche", 700));
-        plats.add(new MenuIt("Garantita", "Galette de pois chiches", 300));
+        plats.add(new MenuIt(4, "Couscous", "Couscous traditionnel aux légumes", 800));
+        plats.add(new MenuIt(5, "Tajine", "Tajine de poulet aux olives", 900));
+        plats.add(new MenuIt(6, "Rechta", "Pâtes fraîches sauce blanche", 700));
+        plats.add(new MenuIt(7, "Garantita", "Galette de pois chiches", 300));
 
         MenuCategory desserts = new MenuCategory("Desserts", "Pour terminer en beauté");
-        desserts.add(new MenuIt("Baklawa", "Pâtisserie au miel et amandes", 400));
-        desserts.add(new MenuIt("Makroud", "Gâteau aux dattes et miel", 350));
-        desserts.add(new MenuIt("Zlabia", "Beignets au miel", 300));
+        desserts.add(new MenuIt(8, "Baklawa", "Pâtisserie au miel et amandes", 400));
+        desserts.add(new MenuIt(9, "Makroud", "Gâteau aux dattes et miel", 350));
+        desserts.add(new MenuIt(10, "Zlabia", "Beignets au miel", 300));
 
         MenuCategory boissons = new MenuCategory("Boissons", "Boissons chaudes et froides");
-        boissons.add(new MenuIt("Thé à la menthe", "Thé traditionnel", 150));
-        boissons.add(new MenuIt("Café", "Café noir ou au lait", 200));
-        boissons.add(new MenuIt("Jus d'orange", "Jus frais pressé", 250));
+        boissons.add(new MenuIt(11, "Thé à la menthe", "Thé traditionnel", 150));
+        boissons.add(new MenuIt(12, "Café", "Café noir ou au lait", 200));
+        boissons.add(new MenuIt(13, "Jus d'orange", "Jus frais pressé", 250));
 
         mainMenu.add(entrees);
         mainMenu.add(plats);
         mainMenu.add(desserts);
         mainMenu.add(boissons);
+
+        // Ids stables : ne jamais réutiliser l'id d'un plat retiré
+        MenuRegistry.getInstance().registerMenu(mainMenu);
     }
 
     private void initializeObservers() {
+        // La cuisine est notifiée hors du thread de paiement ; aucune commande n'est perdue
         KitchenObserver kitchenObserver = new KitchenObserver();
-        orderSubject.attach(kitchenObserver);
+        orderSubject.attach(new AsyncOrderObserver(kitchenObserver, KITCHEN_QUEUE_CAPACITY,
+                AsyncOrderObserver.BackpressurePolicy.BLOCK));
+
+        // Synchrone : le dashboard doit refléter la commande dès le retour du paiement
+        statistics = new StatisticsAggregator();
+        orderSubject.attach(statistics);
     }
 
     public MenuComponent getMenu() {
         return mainMenu;
     }
 
-    public void addOrder(Order order) {
-        orders.add(order);
-        OrdersManager.getInstance().appendOrder(order);
+    /**
+     * Enregistrer une commande payée ; le futur se termine quand elle est durable
+     *
+     * Une commande datée d'un jour passé peut rouvrir un segment scellé : le
+     * rechargement de ce jour et l'ajout se font alors sous le verrou de
+     * persistance en écriture, pour qu'une seule commande recharge le segment.
+     */
+    public CompletableFuture<Void> addOrder(Order order) {
+        LocalDate day = order.getOrderTime().toLocalDate();
+        boolean lateOrder = segmentStore != null && day.isBefore(LocalDate.now());
+        Lock lock = lateOrder ? persistenceLock.writeLock() : persistenceLock.readLock();
+        lock.lock();
+        try {
+            if (lateOrder) {
+                reloadSealedDay(day);
+            }
+            registry.add(order);
+            return orderStore.appendOrder(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remettre dans le registre les commandes d'un jour scellé avant que son
+     * segment ne redevienne chaud, sinon elles ne seraient plus ni froides ni en
+     * mémoire (appelé sous le verrou de persistance en écriture)
+     */
+    private void reloadSealedDay(LocalDate day) {
+        for (OrderSegment segment : coldSegments()) {
+            if (segment.getDay().equals(day)) {
+                for (Order restored : segmentStore.loadSegment(segment)) {
+                    registry.add(restored);
+                }
+            }
+        }
+    }
+
+    /**
+     * Valider une commande (prête à récupérer)
+     */
+    public void validateOrder(Order order) {
+        changeStatus(order, order::validate);
+    }
+
+    /**
+     * Assigner une commande à la livraison
+     */
+    public void assignDelivery(Order order) {
+        changeStatus(order, order::assignDelivery);
+    }
+
+    /**
+     * Forcer le statut d'une commande (ex: livraison confirmée par le livreur)
+     */
+    public void setOrderStatus(Order order, Order.OrderStatus status) {
+        changeStatus(order, () -> order.setStatus(status));
+    }
+
+    private void changeStatus(Order order, Runnable transition) {
+        persistenceLock.readLock().lock();
+        try {
+            registry.transition(order, transition);
+            orderStore.appendStatusChange(order);
+        } finally {
+            persistenceLock.readLock().unlock();
+        }
+        if (orderStore.needsCompaction()) {
+            scheduleCompaction();
+        }
+        orderSubject.notifyObservers(order, "ORDER_STATUS_CHANGED");
+    }
+
+    private void scheduleCompaction() {
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                compactionScheduled.set(false);
+                compact();
+            });
+        }
+    }
+
+    /**
+     * Réécrire le store à partir du registre (journal + compactage périodique)
+     */
+    private void compact() {
+        persistenceLock.writeLock().lock();
+        try {
+            if (orderStore.needsCompaction()) {
+                orderStore.compact(snapshot());
+            }
+        } finally {
+            persistenceLock.writeLock().unlock();
+        }
     }
 
     public void notifyOrderValidated(Order order) {
         orderSubject.notifyObservers(order, "ORDER_VALIDATED");
     }
 
+    public StatisticsAggregator getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Segments froids, archive puis commandes actives ; les commandes archivées sont matérialisées
+     */
     public List<Order> getOrders() {
-        return new ArrayList<>(orders);
+        List<Order> orders = new ArrayList<>(archive.size() + registry.size());
+        for (OrderSegment segment : coldSegments()) {
+            orders.addAll(segmentStore.openSegment(segment).asList());
+        }
+        orders.addAll(archive.asList());
+        orders.addAll(registry.getOrders());
+        return orders;
+    }
+
+    public Order findOrder(int orderId) {
+        Order order = registry.findOrder(orderId);
+        if (order == null) {
+            order = archive.findOrder(orderId);
+        }
+        // Segments froids dont les bornes d'ids encadrent orderId
+        for (OrderSegment segment : coldSegments()) {
+            if (order != null) {
+                break;
+            }
+            if (segment.mayContain(orderId)) {
+                order = segmentStore.findColdOrder(segment, orderId);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Commandes actives d'un statut ; l'archive ne contient que des commandes
+     * clôturées et n'est parcourue que pour VALIDATED. Les segments froids ne sont
+     * pas ouverts : l'historique complet se parcourt page par page via findOrders.
+     */
+    public List<Order> getOrdersByStatus(Order.OrderStatus status) {
+        if (status != Order.OrderStatus.VALIDATED) {
+            return registry.getOrdersByStatus(status);
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < archive.size(); i++) {
+            if (archive.getStatus(i) == status) {
+                orders.add(archive.get(i));
+            }
+        }
+        orders.addAll(registry.getOrdersByStatus(status));
+        return orders;
+    }
+
+    /**
+     * Commandes d'un client : store canonique, puis enregistrements de l'ancien
+     * fichier client_orders.txt absents de celui-ci (même id et même date)
+     */
+    public List<Order> getClientOrders(String email) {
+        List<Order> orders = new ArrayList<>();
+        for (OrderSegment segment : coldSegments()) {
+            if (segment.hasClient(email)) {
+                orders.addAll(segmentStore.openSegment(segment).getOrdersByClient(email));
+            }
+        }
+        orders.addAll(archive.getOrdersByClient(email));
+        orders.addAll(registry.getOrdersByClient(email));
+
+        Set<Long> known = new HashSet<>();
+        for (Order order : orders) {
+            known.add(legacyKey(order));
+        }
+        for (Order legacy : ClientOrderManager.getInstance().loadClientOrders(email)) {
+            if (known.add(legacyKey(legacy))) {
+                legacy.setClientEmail(email);
+                orders.add(legacy);
+            }
+        }
+        return orders;
+    }
+
+    // client_orders.txt ne garde la date qu'à la minute près
+    private static long legacyKey(Order order) {
+        return OrderPage.timeKey(order.getOrderTime().truncatedTo(ChronoUnit.MINUTES)
+                .toEpochSecond(ZoneOffset.UTC), order.getOrderId());
+    }
+
+    /**
+     * Page d'historique par curseur (OrderPage.FIRST pour la première page),
+     * des plus récentes aux plus anciennes ; from/to (null = sans borne) filtrent
+     * sur la date de commande, to exclu
+     */
+    public OrderPage findOrders(LocalDateTime from, LocalDateTime to, long cursor, int limit) {
+        return queryByTime(from, to, cursor, 0, limit);
+    }
+
+    /**
+     * Variante par décalage : ignore les offset commandes les plus récentes
+     * (sans les matérialiser) ; préférer le curseur pour parcourir de longues listes
+     */
+    public List<Order> findOrders(LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        return queryByTime(from, to, OrderPage.FIRST, offset, limit).getOrders();
+    }
+
+    // Fusion par date du registre, de l'archive et des segments froids, de la clé la plus grande à la plus petite
+    private OrderPage queryByTime(LocalDateTime from, LocalDateTime to, long cursor, int skip, int limit) {
+        long lower = from == null ? Long.MIN_VALUE : OrderPage.timeBound(from);
+        long upper = to == null ? cursor : Math.min(cursor, OrderPage.timeBound(to));
+
+        // Sources classées par prochaine clé ; un segment froid n'est lu qu'une fois arrivé en tête
+        PriorityQueue<TimeSource> sources = new PriorityQueue<>(
+                Comparator.comparingLong(TimeSource::peekKey).reversed());
+        if (upper > lower) {
+            offer(sources, new RegistrySource(registry.getOrdersByTimeDescending(lower, upper)), lower);
+            offer(sources, new ArchiveSource(archive, upper), lower);
+            for (OrderSegment segment : coldSegments()) {
+                if (segment.getEndKey() > lower && segment.getStartKey() < upper) {
+                    offer(sources, new SegmentSource(segment, upper), lower);
+                }
+            }
+        }
+
+        List<Order> orders = new ArrayList<>();
+        long lastKey = cursor;
+        while (orders.size() < limit && openHead(sources, lower)) {
+            TimeSource source = sources.poll();
+            lastKey = source.peekKey();
+            Order order = source.take();
+            if (skip > 0) {
+                skip--;
+            } else {
+                orders.add(order);
+            }
+            offer(sources, source, lower);
+        }
+        boolean hasMore = openHead(sources, lower);
+        return new OrderPage(orders, lastKey, hasMore);
+    }
+
+    private static void offer(PriorityQueue<TimeSource> sources, TimeSource source, long lower) {
+        if (source.hasNext() && source.peekKey() >= lower) {
+            sources.add(source);
+        }
+    }
+
+    // Ouvrir les segments froids arrivés en tête ; faux s'il ne reste aucune commande
+    private boolean openHead(PriorityQueue<TimeSource> sources, long lower) {
+        while (!sources.isEmpty() && !sources.peek().isOpen()) {
+            TimeSource segment = sources.poll();
+            segment.open(segmentStore);
+            offer(sources, segment, lower);
+        }
+        return !sources.isEmpty();
+    }
+
+    /**
+     * Commandes d'une source par clé OrderPage.timeKey décroissante
+     */
+    private abstract static class TimeSource {
+        abstract boolean hasNext();
+
+        // Clé de la prochaine commande
+        abstract long peekKey();
+
+        abstract Order take();
+
+        boolean isOpen() {
+            return true;
+        }
+
+        void open(SegmentStore store) {
+        }
+    }
+
+    private static class RegistrySource extends TimeSource {
+        private final Iterator<Map.Entry<Long, Order>> entries;
+        private Map.Entry<Long, Order> next;
+
+        RegistrySource(Map<Long, Order> ordersByTime) {
+            entries = ordersByTime.entrySet().iterator();
+            next = entries.hasNext() ? entries.next() : null;
+        }
+
+        @Override
+        boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        long peekKey() {
+            return next.getKey();
+        }
+
+        @Override
+        Order take() {
+            Order order = next.getValue();
+            next = entries.hasNext() ? entries.next() : null;
+            return order;
+        }
+    }
+
+    private static class ArchiveSource extends TimeSource {
+        private final OrderArchive archive;
+        private int rank;
+
+        ArchiveSource(OrderArchive archive, long upper) {
+            this.archive = archive;
+            this.rank = archive.countTimeKeysBelow(upper);
+        }
+
+        @Override
+        boolean hasNext() {
+            return rank > 0;
+        }
+
+        @Override
+        long peekKey() {
+            return archive.getTimeKeyByRank(rank - 1);
+        }
+
+        @Override
+        Order take() {
+            rank--;
+            return archive.getByTimeRank(rank);
+        }
+    }
+
+    // Segment froid : avant lecture, sa clé est majorée par la fin de son jour
+    private static class SegmentSource extends TimeSource {
+        private final OrderSegment segment;
+        private final long upper;
+        private ArchiveSource orders;
+
+        SegmentSource(OrderSegment segment, long upper) {
+            this.segment = segment;
+            this.upper = upper;
+        }
+
+        @Override
+        boolean hasNext() {
+            return orders == null || orders.hasNext();
+        }
+
+        @Override
+        long peekKey() {
+            return orders != null ? orders.peekKey() : Math.min(upper, segment.getEndKey()) - 1;
+        }
+
+        @Override
+        Order take() {
+            return orders.take();
+        }
+
+        @Override
+        boolean isOpen() {
+            return orders != null;
+        }
+
+        @Override
+        void open(SegmentStore store) {
+            orders = new ArchiveSource(store.openSegment(segment), upper);
+        }
+    }
+
+    public OrderArchive getArchive() {
+        return archive;
+    }
+
+    public List<Order> getPendingOrders() {
+        return getOrdersByStatus(Order.OrderStatus.PENDING);
+    }
+
+    // Commandes en cours de livraison
+    public List<Order> getDeliveryOrders() {
+        return getOrdersByStatus(Order.OrderStatus.DELIVERED);
     }
 
     private void loadOrders() {
-        List<Order> savedOrders = OrdersManager.getInstance().loadOrders();
-        orders.addAll(savedOrders);
-        System.out.println("📦 " + savedOrders.size() + " commande(s) restaurée(s)");
+        List<Order> savedOrders = orderStore.loadOrders();
+        if (orderStore instanceof BinaryOrderStore && ((BinaryOrderStore) orderStore).isEmpty()) {
+            // Premier démarrage sur le store binaire : importer orders.txt
+            savedOrders = OrdersManager.getInstance().loadOrders();
+            orderStore.compact(savedOrders);
+        }
+        archive = new OrderArchive(mainMenu);
+        List<Order> activeOrders = new ArrayList<>();
+        for (Order order : savedOrders) {
+            if (OrderArchive.isClosed(order)) {
+                archive.add(order);
+            } else {
+                registry.add(order);
+                activeOrders.add(order);
+            }
+        }
+        if (orderStore.needsCompaction()) {
+            orderStore.compact(snapshot());
+        }
+        statistics.addArchive(archive);
+        List<OrderSegment> coldSegments = coldSegments();
+        for (OrderSegment segment : coldSegments) {
+            statistics.addSegment(segment);
+        }
+        for (Order order : activeOrders) {
+            orderSubject.notifyObservers(order, "ORDER_RESTORED");
+        }
+        System.out.println("📦 " + savedOrders.size() + " commande(s) restaurée(s) dont " +
+                archive.size() + " archivée(s)" +
+                (coldSegments.isEmpty() ? "" : ", " + coldSegments.size() + " segment(s) scellé(s) sur disque"));
+    }
+
+    /**
+     * Toutes les commandes pour le compactage, sans copier l'archive :
+     * elle est matérialisée une commande à la fois pendant l'écriture
+     */
+    private List<Order> snapshot() {
+        List<Order> archived = archive.asList();
+        List<Order> active = registry.getOrders();
+        return new AbstractList<Order>() {
+            @Override
+            public Order get(int index) {
+                return index < archived.size() ? archived.get(index) : active.get(index - archived.size());
+            }
+
+            @Override
+            public int size() {
+                return archived.size() + active.size();
+            }
+        };
     }
 
     public void displayMenu() {
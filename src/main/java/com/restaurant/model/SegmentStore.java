@@ -0,0 +1,37 @@
+package com.restaurant.model;
+
+import com.restaurant.model.order.Order;
+import java.util.List;
+
+/**
+ * Store dont les commandes clôturées restent sur disque, en segments journaliers
+ * SegmentedOrderStore a un fichier par jour ; BinaryOrderStore regroupe par jour
+ * les commandes de orders.bin. RestaurantSystem teste ce type avec instanceof :
+ * OrdersManager n'a pas de segments froids et garde tout en mémoire.
+ */
+public interface SegmentStore extends OrderStore {
+
+    /**
+     * Segments scellés non chargés au démarrage, du plus ancien au plus récent
+     * Leurs commandes ne sont ni dans le registre ni dans l'archive en mémoire
+     */
+    List<OrderSegment> getColdSegments();
+
+    /**
+     * Lire les commandes d'un segment froid
+     */
+    OrderArchive openSegment(OrderSegment segment);
+
+    /**
+     * Charger en mémoire les commandes d'un segment froid, qui cesse d'être froid ;
+     * liste vide s'il est déjà chargé
+     */
+    List<Order> loadSegment(OrderSegment segment);
+
+    /**
+     * Retrouver une commande d'un segment froid ; null si absente
+     */
+    default Order findColdOrder(OrderSegment segment, int orderId) {
+        return openSegment(segment).findOrder(orderId);
+    }
+}
@@ -0,0 +1,780 @@
+package com.restaurant.model;
+
+import com.restaurant.model.order.Order;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PATRON SINGLETON - Store des commandes découpé en segments journaliers
+ *
+ * Le répertoire orders/ contient un fichier par jour (segment-AAAAMMJJ.txt,
+ * même format que orders.txt), le journal des statuts orders.wal et le
+ * manifeste manifest.txt. Seul le segment du jour reçoit les nouvelles
+ * commandes ; un segment dont le jour est passé et dont toutes les commandes
+ * sont clôturées est scellé au compactage (ou au démarrage) : il devient
+ * immuable et le manifeste garde son résumé (bornes d'ids, ventes, plats,
+ * clients).
+ *
+ * Au démarrage, seuls les segments chauds sont chargés en mémoire ; les
+ * segments scellés restent sur disque et sont ouverts à la demande
+ * (openSegment) quand une recherche par date, par id ou par client les
+ * concerne. -Drestaurant.retentionDays=N supprime au démarrage les segments
+ * scellés de plus de N jours (0 ou absent : tout garder).
+ *
+ * Un archiveur en arrière-plan compresse les segments scellés de plus de
+ * -Drestaurant.archiveAfterDays=N jours (défaut 7, 0 : jamais) en blocs
+ * CompressedSegment (.blk) ; une commande y est retrouvée par id sans tout
+ * décompresser (findColdOrder).
+ *
+ * Au premier démarrage, orders.txt et son journal sont répartis en segments ;
+ * l'ancien fichier est conservé.
+ */
+public class SegmentedOrderStore implements SegmentStore {
+    private static SegmentedOrderStore instance;
+    public static final String RETENTION_PROPERTY = "restaurant.retentionDays";
+    public static final String ARCHIVE_PROPERTY = "restaurant.archiveAfterDays";
+    private static final int DEFAULT_ARCHIVE_AFTER_DAYS = 7;
+    // Premier passage de l'archiveur après le démarrage, puis toutes les heures
+    private static final long ARCHIVER_DELAY_MINUTES = 1;
+    private static final long ARCHIVER_PERIOD_MINUTES = 60;
+    private static final String SEGMENT_DIR = DataFiles.path("orders");
+    private static final String MANIFEST_FILE = "manifest.txt";
+    private static final String JOURNAL_FILE = new File(SEGMENT_DIR, "orders.wal").getPath();
+    private static final String SEGMENT_PREFIX = "segment-";
+    // Nombre d'entrées du journal au-delà duquel les segments sont réécrits
+    private static final int COMPACTION_THRESHOLD = 500;
+    // Segments froids gardés en mémoire après ouverture
+    private static final int OPEN_SEGMENTS_CACHE = 8;
+
+    // Manifeste : un segment par jour, du plus ancien au plus récent
+    private final Map<LocalDate, OrderSegment> segments = new TreeMap<>();
+    // Jours dont le fichier doit être réécrit au prochain compactage
+    private final Set<LocalDate> dirtyDays = new HashSet<>();
+    private OrdersManager.Journal journal = new OrdersManager.Journal();
+    private boolean sealPending;
+
+    // Écrivain du segment du jour et du journal, ouverts au premier ajout
+    private GroupCommitWriter segmentWriter;
+    private LocalDate segmentWriterDay;
+    private GroupCommitWriter journalWriter;
+    private ScheduledExecutorService archiver;
+
+    // Segments froids ouverts (LRU), verrou pris après celui du store
+    private final Map<LocalDate, OrderArchive> openSegments =
+            new LinkedHashMap<LocalDate, OrderArchive>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<LocalDate, OrderArchive> eldest) {
+                    return size() > OPEN_SEGMENTS_CACHE;
+                }
+            };
+
+    private SegmentedOrderStore() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeWriters));
+        System.out.println("📦 SegmentedOrderStore initialisé (" + SEGMENT_DIR + ")");
+    }
+
+    public static SegmentedOrderStore getInstance() {
+        if (instance == null) {
+            synchronized (SegmentedOrderStore.class) {
+                if (instance == null) {
+                    instance = new SegmentedOrderStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Charger les commandes des segments chauds
+     * Les segments scellés restent sur disque (getColdSegments)
+     */
+    @Override
+    public synchronized List<Order> loadOrders() {
+        segments.clear();
+        dirtyDays.clear();
+        sealPending = false;
+        synchronized (openSegments) {
+            openSegments.clear();
+        }
+
+        File dir = new File(SEGMENT_DIR);
+        if (!dir.isDirectory()) {
+            return migrate(dir);
+        }
+
+        readManifest();
+        LocalDate today = LocalDate.now();
+        applyRetention(today);
+        journal = OrdersManager.Journal.read(JOURNAL_FILE);
+
+        List<Order> orders = new ArrayList<>();
+        int coldOrders = 0;
+        for (OrderSegment segment : segments.values()) {
+            if (segment.isSealed()) {
+                // Les ids des commandes froides ne doivent pas être réattribués
+                Order.reserveIdsThrough(segment.getMaxOrderId());
+                coldOrders += segment.getOrderCount();
+                if (touchedByJournal(segment)) {
+                    dirtyDays.add(segment.getDay());
+                }
+                continue;
+            }
+
+            List<Order> segmentOrders = readSegment(segment);
+            for (Order order : segmentOrders) {
+                if (journal.changes.containsKey(order.getOrderId())) {
+                    journal.apply(order);
+                    dirtyDays.add(segment.getDay());
+                }
+            }
+            segment.markLoaded();
+            orders.addAll(segmentOrders);
+            if (OrderSegment.canSeal(segment.getDay(), segmentOrders, today)) {
+                sealPending = true;
+            }
+        }
+
+        System.out.println("✅ " + orders.size() + " commande(s) chargée(s) depuis " + SEGMENT_DIR +
+                " ; " + coldOrders + " commande(s) dans " + getColdSegments().size() + " segment(s) scellé(s)");
+        startArchiver();
+        return orders;
+    }
+
+    /**
+     * Premier démarrage : répartir orders.txt (journal appliqué) en segments journaliers
+     */
+    private List<Order> migrate(File dir) {
+        if (!dir.mkdirs()) {
+            System.out.println("❌ Impossible de créer " + SEGMENT_DIR);
+            return new ArrayList<>();
+        }
+        List<Order> orders = OrdersManager.getInstance().loadOrders();
+        if (!orders.isEmpty()) {
+            compact(orders);
+            System.out.println("✅ " + orders.size() + " commande(s) migrée(s) en " + segments.size() +
+                    " segment(s) ; " + DataFiles.path("orders.txt") + " est conservé");
+        } else {
+            writeManifest();
+        }
+        return orders;
+    }
+
+    /**
+     * Supprimer les segments scellés plus anciens que la rétention
+     */
+    private void applyRetention(LocalDate today) {
+        int retentionDays = Integer.getInteger(RETENTION_PROPERTY, 0);
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        LocalDate limit = today.minusDays(retentionDays);
+        int removed = 0;
+        for (Iterator<OrderSegment> it = segments.values().iterator(); it.hasNext(); ) {
+            OrderSegment segment = it.next();
+            if (!segment.isSealed() || !segment.getDay().isBefore(limit)) {
+                continue;
+            }
+            File file = segment.isCompressed() ? compressedFile(segment) : segmentFile(segment);
+            if (file.exists() && !file.delete()) {
+                System.out.println("❌ Impossible de supprimer " + file.getPath());
+                continue;
+            }
+            it.remove();
+            removed++;
+        }
+        if (removed > 0) {
+            writeManifest();
+            System.out.println("🗑️ " + removed + " segment(s) de plus de " + retentionDays +
+                    " jour(s) supprimé(s)");
+        }
+    }
+
+    /**
+     * Segments scellés non chargés au démarrage, du plus ancien au plus récent
+     */
+    @Override
+    public synchronized List<OrderSegment> getColdSegments() {
+        List<OrderSegment> cold = new ArrayList<>();
+        for (OrderSegment segment : segments.values()) {
+            if (segment.isSealed() && !segment.isLoaded()) {
+                cold.add(segment);
+            }
+        }
+        return cold;
+    }
+
+    /**
+     * Lire un segment froid (journal appliqué) ; les derniers ouverts restent en cache
+     */
+    @Override
+    public OrderArchive openSegment(OrderSegment segment) {
+        synchronized (openSegments) {
+            OrderArchive archive = openSegments.get(segment.getDay());
+            if (archive != null) {
+                return archive;
+            }
+        }
+
+        int version;
+        synchronized (this) {
+            version = segment.getVersion();
+        }
+        List<Order> orders = readSegment(segment);
+
+        synchronized (this) {
+            OrderArchive archive = new OrderArchive();
+            for (Order order : orders) {
+                journal.apply(order);
+                archive.add(order);
+            }
+            // Ne pas garder une lecture antérieure à une réécriture du fichier
+            if (segment.getVersion() == version) {
+                synchronized (openSegments) {
+                    openSegments.put(segment.getDay(), archive);
+                }
+            }
+            return archive;
+        }
+    }
+
+    /**
+     * Charger un segment froid (journal appliqué) avant qu'il ne redevienne chaud,
+     * par exemple pour une commande datée d'un jour scellé
+     */
+    @Override
+    public synchronized List<Order> loadSegment(OrderSegment segment) {
+        if (segment.isLoaded() || segments.get(segment.getDay()) != segment) {
+            return new ArrayList<>();
+        }
+        List<Order> orders = readSegment(segment);
+        orders.forEach(journal::apply);
+        segment.markLoaded();
+        synchronized (openSegments) {
+            openSegments.remove(segment.getDay());
+        }
+        return orders;
+    }
+
+    /**
+     * Retrouver une commande d'un segment froid ; un segment compressé n'est
+     * décompressé que sur le bloc qui peut la contenir
+     */
+    @Override
+    public Order findColdOrder(OrderSegment segment, int orderId) {
+        synchronized (openSegments) {
+            OrderArchive archive = openSegments.get(segment.getDay());
+            if (archive != null) {
+                return archive.findOrder(orderId);
+            }
+        }
+        boolean compressed;
+        synchronized (this) {
+            compressed = segment.isCompressed();
+        }
+        if (!compressed) {
+            return openSegment(segment).findOrder(orderId);
+        }
+
+        Order order;
+        try {
+            order = CompressedSegment.find(compressedFile(segment), orderId);
+        } catch (IOException e) {
+            // Fichier remplacé entre-temps (segment réécrit) : lecture complète
+            return openSegment(segment).findOrder(orderId);
+        }
+        if (order != null) {
+            synchronized (this) {
+                journal.apply(order);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Ajouter une commande payée au segment de son jour
+     */
+    @Override
+    public CompletableFuture<Void> appendOrder(Order order) {
+        if (!order.isPaid()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            LocalDate day = order.getOrderTime().toLocalDate();
+            dirtyDays.add(day);
+            written = segmentWriter(day).submit(OrdersManager.formatOrder(order));
+        }
+        return written.whenComplete((result, e) -> {
+            if (e == null) {
+                System.out.println("✅ Commande #" + order.getOrderId() + " ajoutée au segment");
+            } else {
+                System.out.println("❌ Erreur lors de l'ajout de la commande: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Ajouter un changement de statut au journal (coût constant)
+     */
+    @Override
+    public synchronized void appendStatusChange(Order order) {
+        journalWriter().submit(OrdersManager.formatStatusChange(order))
+                .exceptionally(e -> {
+                    System.out.println("❌ Erreur lors de l'écriture du journal: " + e.getMessage());
+                    return null;
+                });
+        journal.record(order);
+        LocalDate day = order.getOrderTime().toLocalDate();
+        dirtyDays.add(day);
+        synchronized (openSegments) {
+            openSegments.remove(day);
+        }
+    }
+
+    /**
+     * Indique si les segments doivent être réécrits (journal trop long ou segments à sceller)
+     */
+    @Override
+    public synchronized boolean needsCompaction() {
+        return sealPending || journal.entries >= COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Réécrire les segments modifiés, sceller les jours clôturés et vider le journal
+     *
+     * Les segments chargés sont réécrits à partir des commandes en mémoire ;
+     * les segments froids modifiés par le journal sont relus et corrigés.
+     */
+    @Override
+    public synchronized void compact(List<Order> orders) {
+        // Les ajouts déjà soumis doivent être sur disque avant la réécriture
+        closeSegmentWriter();
+        journalWriter().flush();
+
+        Map<LocalDate, List<Order>> ordersByDay = new TreeMap<>();
+        for (Order order : orders) {
+            if (!order.isPaid()) {
+                continue;
+            }
+            // Segment scellé inchangé : rien à réécrire ni à évaluer
+            LocalDate day = order.getOrderTime().toLocalDate();
+            OrderSegment segment = segments.get(day);
+            if (segment == null || !segment.isSealed() || dirtyDays.contains(day)) {
+                ordersByDay.computeIfAbsent(day, key -> new ArrayList<>()).add(order);
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        int sealed = 0;
+        for (Map.Entry<LocalDate, List<Order>> entry : ordersByDay.entrySet()) {
+            OrderSegment segment = segments.get(entry.getKey());
+            if (segment == null) {
+                segment = new OrderSegment(entry.getKey());
+                segment.markLoaded();
+                segments.put(entry.getKey(), segment);
+                dirtyDays.add(entry.getKey());
+            } else if (!segment.isLoaded()) {
+                // Segment resté sur disque : ses commandes ne sont pas toutes en mémoire
+                continue;
+            }
+            if (dirtyDays.remove(segment.getDay()) && !writeSegment(segment, entry.getValue())) {
+                continue;
+            }
+            if (updateSeal(segment, entry.getValue(), today)) {
+                sealed++;
+            }
+        }
+
+        // Segments non chargés modifiés depuis le démarrage : relire, corriger, réécrire
+        for (OrderSegment segment : segments.values()) {
+            if (segment.isLoaded() || !dirtyDays.remove(segment.getDay())) {
+                continue;
+            }
+            List<Order> segmentOrders = readSegment(segment);
+            segmentOrders.forEach(journal::apply);
+            if (writeSegment(segment, segmentOrders)) {
+                updateSeal(segment, segmentOrders, today);
+            }
+        }
+
+        writeManifest();
+        try {
+            journalWriter().truncate();
+            journal = new OrdersManager.Journal();
+            sealPending = false;
+            System.out.println("✅ Segments compactés" + (sealed > 0 ? ", " + sealed + " segment(s) scellé(s)" : ""));
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors du compactage du journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sceller ou rouvrir un segment selon ses commandes ; vrai s'il vient d'être scellé
+     */
+    private static boolean updateSeal(OrderSegment segment, List<Order> orders, LocalDate today) {
+        boolean wasSealed = segment.isSealed();
+        if (OrderSegment.canSeal(segment.getDay(), orders, today)) {
+            segment.seal(orders);
+            return !wasSealed;
+        }
+        segment.unseal();
+        return false;
+    }
+
+    private boolean touchedByJournal(OrderSegment segment) {
+        for (Integer orderId : journal.changes.keySet()) {
+            if (segment.mayContain(orderId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===== Fichiers =====
+
+    private static File segmentFile(OrderSegment segment) {
+        return new File(SEGMENT_DIR, segment.getFileName());
+    }
+
+    private static File compressedFile(OrderSegment segment) {
+        return new File(SEGMENT_DIR, segment.getCompressedFileName());
+    }
+
+    /**
+     * Lire les commandes d'un segment, texte ou compressé (le fichier présent fait foi)
+     */
+    private static List<Order> readSegment(OrderSegment segment) {
+        File file = segmentFile(segment);
+        File compressed = compressedFile(segment);
+        try {
+            if (!file.exists()) {
+                return compressed.exists() ? CompressedSegment.readAll(compressed) : new ArrayList<>();
+            }
+            return ParallelRecordParser.parse(file, OrdersManager::readOrders);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de la lecture de " + file.getPath() + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Réécrire un segment (fichier temporaire puis remplacement atomique)
+     */
+    private boolean writeSegment(OrderSegment segment, List<Order> orders) {
+        StringBuilder sb = new StringBuilder();
+        for (Order order : orders) {
+            if (order.isPaid()) {
+                sb.append(OrdersManager.formatOrder(order));
+            }
+        }
+        try {
+            replace(segmentFile(segment), sb.toString());
+            segment.rewritten();
+            if (segment.isCompressed()) {
+                // Le texte fait foi à nouveau ; le segment sera recompressé une fois rescellé
+                segment.setCompressed(false);
+                if (!compressedFile(segment).delete()) {
+                    System.out.println("⚠️ Impossible de supprimer " + segment.getCompressedFileName());
+                }
+            }
+            synchronized (openSegments) {
+                openSegments.remove(segment.getDay());
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de l'écriture de " + segment.getFileName() + ": " + e.getMessage());
+            dirtyDays.add(segment.getDay());
+            return false;
+        }
+    }
+
+    private static void replace(File file, String content) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        Files.write(tmp.toPath(), content.getBytes(Charset.defaultCharset()));
+        Files.move(tmp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lire le manifeste ; un fichier de segment absent du manifeste est chaud
+     */
+    private void readManifest() {
+        File manifest = new File(SEGMENT_DIR, MANIFEST_FILE);
+        if (manifest.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(manifest))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        readManifestLine(line);
+                    } catch (RuntimeException e) {
+                        System.out.println("⚠️ Ligne du manifeste ignorée: " + line);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("❌ Erreur lors de la lecture du manifeste: " + e.getMessage());
+            }
+        }
+
+        File[] files = new File(SEGMENT_DIR).listFiles((dir, name) ->
+                name.startsWith(SEGMENT_PREFIX) && (name.endsWith(".txt") || name.endsWith(".blk")));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                LocalDate day = OrderSegment.parseDay(name.substring(SEGMENT_PREFIX.length(), name.length() - 4));
+                segments.computeIfAbsent(day, OrderSegment::new);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Fichier de segment ignoré: " + name);
+            }
+        }
+    }
+
+    private void readManifestLine(String line) {
+        int colon = line.indexOf(':');
+        if (colon < 0 || line.startsWith("#")) {
+            return;
+        }
+        String[] parts = line.substring(colon + 1).split("\\|");
+        OrderSegment segment = segments.computeIfAbsent(OrderSegment.parseDay(parts[0]), OrderSegment::new);
+        switch (line.substring(0, colon)) {
+            case "SEGMENT":
+                // Format: DAY|HOT ou DAY|SEALED|COUNT|MIN_ID|MAX_ID|PAID|TOTAL_CENTS (COMPRESSED : scellé, .blk)
+                if ("SEALED".equals(parts[1]) || "COMPRESSED".equals(parts[1])) {
+                    segment.restoreSummary(true, Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                            Integer.parseInt(parts[4]), Integer.parseInt(parts[5]), Long.parseLong(parts[6]));
+                    segment.setCompressed("COMPRESSED".equals(parts[1]));
+                }
+                break;
+            case "DISHES":
+                // Format: DAY|NOM=QUANTITÉ|...
+                Map<String, Integer> dishCounts = new LinkedHashMap<>();
+                for (int i = 1; i < parts.length; i++) {
+                    int equals = parts[i].lastIndexOf('=');
+                    dishCounts.put(parts[i].substring(0, equals),
+                            Integer.parseInt(parts[i].substring(equals + 1)));
+                }
+                segment.restoreDishCounts(dishCounts);
+                break;
+            case "CLIENTS":
+                // Format: DAY|EMAIL|...
+                segment.restoreClients(new HashSet<>(Arrays.asList(parts).subList(1, parts.length)));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Réécrire le manifeste (fichier temporaire puis remplacement atomique)
+     */
+    private void writeManifest() {
+        StringBuilder sb = new StringBuilder();
+        String newLine = System.lineSeparator();
+        for (OrderSegment segment : segments.values()) {
+            String day = segment.formatDay();
+            if (!segment.isSealed()) {
+                sb.append("SEGMENT:").append(day).append("|HOT").append(newLine);
+                continue;
+            }
+            sb.append("SEGMENT:").append(day).append(segment.isCompressed() ? "|COMPRESSED|" : "|SEALED|")
+                    .append(segment.getOrderCount()).append("|")
+                    .append(segment.getMinOrderId()).append("|")
+                    .append(segment.getMaxOrderId()).append("|")
+                    .append(segment.getPaidCount()).append("|")
+                    .append(segment.getTotalCents()).append(newLine);
+            if (!segment.getDishCounts().isEmpty()) {
+                sb.append("DISHES:").append(day);
+                segment.getDishCounts().forEach((dish, quantity) ->
+                        sb.append("|").append(dish).append("=").append(quantity));
+                sb.append(newLine);
+            }
+            if (!segment.getClients().isEmpty()) {
+                sb.append("CLIENTS:").append(day);
+                segment.getClients().forEach(email -> sb.append("|").append(email));
+                sb.append(newLine);
+            }
+        }
+        try {
+            replace(new File(SEGMENT_DIR, MANIFEST_FILE), sb.toString());
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lors de l'écriture du manifeste: " + e.getMessage());
+        }
+    }
+
+    // ===== Écrivains =====
+
+    /**
+     * Écrivain du segment d'un jour ; un segment scellé qui reçoit une commande redevient chaud
+     * (ses commandes ont été chargées au préalable par loadSegment)
+     */
+    private GroupCommitWriter segmentWriter(LocalDate day) {
+        if (segmentWriter != null && day.equals(segmentWriterDay)) {
+            return segmentWriter;
+        }
+        closeSegmentWriter();
+
+        OrderSegment segment = segments.get(day);
+        if (segment == null) {
+            segment = new OrderSegment(day);
+            segment.markLoaded();
+            segments.put(day, segment);
+        } else if (segment.isSealed()) {
+            if (segment.isCompressed()) {
+                // Repasser en texte avant d'y ajouter des commandes
+                writeSegment(segment, readSegment(segment));
+            }
+            segment.unseal();
+            writeManifest();
+        }
+        segmentWriter = openWriter(segmentFile(segment).getPath());
+        segmentWriterDay = day;
+        return segmentWriter;
+    }
+
+    private void closeSegmentWriter() {
+        if (segmentWriter != null) {
+            segmentWriter.close();
+            segmentWriter = null;
+            segmentWriterDay = null;
+        }
+    }
+
+    private synchronized GroupCommitWriter journalWriter() {
+        if (journalWriter == null) {
+            journalWriter = openWriter(JOURNAL_FILE);
+        }
+        return journalWriter;
+    }
+
+    // ===== Archivage =====
+
+    private void startArchiver() {
+        if (archiver != null || Integer.getInteger(ARCHIVE_PROPERTY, DEFAULT_ARCHIVE_AFTER_DAYS) <= 0) {
+            return;
+        }
+        archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "segment-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiver.scheduleWithFixedDelay(this::archiveSegments,
+                ARCHIVER_DELAY_MINUTES, ARCHIVER_PERIOD_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Compresser les segments scellés plus anciens que -Drestaurant.archiveAfterDays ;
+     * retourne le nombre de segments compressés
+     *
+     * Appelé périodiquement par l'archiveur ; lecture et compression se font
+     * hors du verrou, seul le remplacement du fichier le prend.
+     */
+    public int archiveSegments() {
+        int archiveAfterDays = Integer.getInteger(ARCHIVE_PROPERTY, DEFAULT_ARCHIVE_AFTER_DAYS);
+        if (archiveAfterDays <= 0) {
+            return 0;
+        }
+        LocalDate limit = LocalDate.now().minusDays(archiveAfterDays);
+        List<OrderSegment> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (OrderSegment segment : segments.values()) {
+                if (segment.isSealed() && !segment.isCompressed() && segment.getDay().isBefore(limit)
+                        && !dirtyDays.contains(segment.getDay())) {
+                    candidates.add(segment);
+                }
+            }
+        }
+
+        int archived = 0;
+        long textBytes = 0;
+        long compressedBytes = 0;
+        for (OrderSegment segment : candidates) {
+            int version;
+            synchronized (this) {
+                version = segment.getVersion();
+            }
+            File text = segmentFile(segment);
+            File compressed = compressedFile(segment);
+            File tmp = new File(compressed.getPath() + ".tmp");
+            long length = text.length();
+            try {
+                CompressedSegment.write(tmp, readSegment(segment));
+            } catch (IOException e) {
+                System.out.println("❌ Erreur lors de la compression de " + segment.getFileName() + ": " + e.getMessage());
+                tmp.delete();
+                continue;
+            }
+
+            synchronized (this) {
+                // Segment réécrit, rouvert ou supprimé pendant la compression : réessayer plus tard
+                if (segment.getVersion() != version || !segment.isSealed() || segment.isCompressed()
+                        || dirtyDays.contains(segment.getDay()) || segments.get(segment.getDay()) != segment) {
+                    tmp.delete();
+                    continue;
+                }
+                try {
+                    Files.move(tmp.toPath(), compressed.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    System.out.println("❌ Erreur lors de la compression de " + segment.getFileName() + ": " + e.getMessage());
+                    tmp.delete();
+                    continue;
+                }
+                segment.setCompressed(true);
+                writeManifest();
+                if (!text.delete()) {
+                    System.out.println("⚠️ Impossible de supprimer " + text.getPath());
+                }
+                archived++;
+                textBytes += length;
+                compressedBytes += compressed.length();
+            }
+        }
+        if (archived > 0) {
+            System.out.println("🗜️ " + archived + " segment(s) compressé(s) : " + textBytes / 1024 + " Ko -> " +
+                    compressedBytes / 1024 + " Ko");
+        }
+        return archived;
+    }
+
+    private synchronized void closeWriters() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+        }
+        closeSegmentWriter();
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+    }
+
+    private static GroupCommitWriter openWriter(String fileName) {
+        try {
+            return new GroupCommitWriter(fileName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir " + fileName, e);
+        }
+    }
+}
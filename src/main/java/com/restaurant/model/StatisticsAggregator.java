@@ -0,0 +1,137 @@
+package com.restaurant.model;
+
+import com.restaurant.model.notification.OrderObserver;
+import com.restaurant.model.order.Order;
+import com.restaurant.model.order.OrderItem;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PATRON OBSERVATEUR - Statistiques de ventes maintenues au fil des événements
+ * Le dashboard lit des totaux déjà calculés au lieu de reparcourir les commandes
+ */
+public class StatisticsAggregator implements OrderObserver {
+    // Statut des commandes encore actives ; une commande clôturée en est retirée
+    private final Map<Integer, Order.OrderStatus> statusByOrderId = new HashMap<>();
+    private final Map<String, Integer> dishCount = new HashMap<>();
+    private long pendingCount;
+    private long paidCount;
+    private long totalSalesCents;
+    private String popularDish;
+    private int popularDishCount;
+
+    @Override
+    public synchronized void update(Order order, String event) {
+        switch (event) {
+            case "ORDER_VALIDATED":
+            case "ORDER_RESTORED":
+                addOrder(order);
+                break;
+            case "ORDER_STATUS_CHANGED":
+                changeStatus(order);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addOrder(Order order) {
+        if (!OrderArchive.isClosed(order)
+                && statusByOrderId.putIfAbsent(order.getOrderId(), order.getStatus()) != null) {
+            return;
+        }
+        if (order.isPending()) {
+            pendingCount++;
+        }
+        if (!order.isPaid()) {
+            return;
+        }
+
+        paidCount++;
+        totalSalesCents += order.getTotalCents();
+        for (OrderItem item : order.getItemsView()) {
+            countDish(item.getMenuItem().getName(), item.getQuantity());
+        }
+    }
+
+    /**
+     * Intégrer les commandes archivées directement depuis leurs colonnes, sans les matérialiser
+     * (commandes clôturées : leur statut ne changera plus)
+     */
+    public synchronized void addArchive(OrderArchive archive) {
+        for (int i = 0; i < archive.size(); i++) {
+            if (archive.getStatus(i) == Order.OrderStatus.PENDING) {
+                pendingCount++;
+            }
+            if (!archive.isPaid(i)) {
+                continue;
+            }
+            paidCount++;
+            totalSalesCents += archive.getTotalCents(i);
+            for (int j = archive.getItemStart(i); j < archive.getItemEnd(i); j++) {
+                countDish(archive.getItemDish(j).getName(), archive.getItemQuantity(j));
+            }
+        }
+    }
+
+    /**
+     * Ajouter le résumé d'un segment scellé, sans lire ses commandes
+     */
+    public synchronized void addSegment(OrderSegment segment) {
+        paidCount += segment.getPaidCount();
+        totalSalesCents += segment.getTotalCents();
+        segment.getDishCounts().forEach(this::countDish);
+    }
+
+    private void countDish(String dishName, int quantity) {
+        int count = dishCount.merge(dishName, quantity, Integer::sum);
+        // Les compteurs ne font que croître : le plat populaire change seulement s'il est dépassé
+        if (count > popularDishCount) {
+            popularDishCount = count;
+            popularDish = dishName;
+        }
+    }
+
+    private void changeStatus(Order order) {
+        // Statut terminal : la commande ne changera plus, inutile de la suivre
+        Order.OrderStatus previous = OrderArchive.isClosed(order)
+                ? statusByOrderId.remove(order.getOrderId())
+                : statusByOrderId.put(order.getOrderId(), order.getStatus());
+        if (previous == null) {
+            if (!OrderArchive.isClosed(order)) {
+                statusByOrderId.remove(order.getOrderId());
+                addOrder(order);
+            }
+            return; // Commande clôturée déjà comptée puis retirée
+        }
+        if (previous == Order.OrderStatus.PENDING) {
+            pendingCount--;
+        }
+        if (order.isPending()) {
+            pendingCount++;
+        }
+    }
+
+    public synchronized long getPendingCount() {
+        return pendingCount;
+    }
+
+    public synchronized long getPaidCount() {
+        return paidCount;
+    }
+
+    public synchronized double getTotalSales() {
+        return totalSalesCents / 100.0;
+    }
+
+    public synchronized long getTotalSalesCents() {
+        return totalSalesCents;
+    }
+
+    public synchronized String getPopularDish() {
+        if (popularDish == null) {
+            return "Aucun";
+        }
+        return popularDish + " (" + popularDishCount + "x)";
+    }
+}
@@ -1,20 +1,43 @@
 package com.restaurant.model;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * PATRON SINGLETON - Gestion des utilisateurs
+ *
+ * Les utilisateurs sont indexés par email (login et vérifications en O(1)),
+ * avec un index secondaire des comptes en attente. Une inscription ajoute une
+ * ligne à users.txt ; une approbation ou un rejet ajoute EMAIL:STATUS au
+ * journal users.log, fusionné dans users.txt lors d'un compactage périodique.
  */
 public class UserManager {
     private static UserManager instance;
-    private static final String USERS_FILE = "users.txt";
-    private List<User> users;
+    private static final String USERS_FILE = DataFiles.path("users.txt");
+    private static final String CHANGES_FILE = DataFiles.path("users.log");
+    // Nombre d'entrées du journal au-delà duquel users.txt est réécrit
+    private static final int COMPACTION_THRESHOLD = 200;
+
+    private final Map<String, User> usersByEmail;
+    // Tous les comptes dans l'ordre d'inscription, pour réécrire users.txt (accès sous verrou)
+    private final Map<String, User> usersInOrder;
+    // Comptes en attente, dans l'ordre d'inscription (accès sous verrou)
+    private final Map<String, User> pendingUsers;
+    private int changeEntries;
 
     private UserManager() {
-        users = new ArrayList<>();
+        usersByEmail = new ConcurrentHashMap<>();
+        usersInOrder = new LinkedHashMap<>();
+        pendingUsers = new LinkedHashMap<>();
         loadUsers();
+        replayChanges();
     }
 
     public static UserManager getInstance() {
@@ -45,41 +68,136 @@ public class UserManager {
                     String password = parts[1];
                     User.UserRole role = User.UserRole.valueOf(parts[2]);
                     User.UserStatus status = User.UserStatus.valueOf(parts[3]);
-                    users.add(new User(email, password, role, status));
+                    index(new User(email, password, role, status));
                 }
             }
-            System.out.println("✅ " + users.size() + " utilisateur(s) chargé(s)");
+            System.out.println("✅ " + usersByEmail.size() + " utilisateur(s) chargé(s)");
         } catch (IOException e) {
             System.out.println("❌ Erreur chargement users: " + e.getMessage());
         }
     }
 
-    // Sauvegarder tous les utilisateurs
-    private void saveUsers() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(USERS_FILE))) {
-            for (User user : users) {
-                writer.write(user.getEmail() + ":" +
-                        user.getPassword() + ":" +
-                        user.getRole().name() + ":" +
-                        user.getStatus().name());
+    // Rejouer le journal des approbations/rejets
+    private void replayChanges() {
+        File file = new File(CHANGES_FILE);
+        if (!file.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(":");
+                if (parts.length != 2) {
+                    continue;
+                }
+                try {
+                    User.UserStatus status = User.UserStatus.valueOf(parts[1]);
+                    User user = usersByEmail.get(parts[0]);
+                    if (user != null) {
+                        applyStatus(user, status);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.out.println("⚠️ Ligne du journal users ignorée: " + line);
+                }
+                changeEntries++;
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Erreur lecture journal users: " + e.getMessage());
+        }
+
+        if (changeEntries >= COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    private synchronized void index(User user) {
+        usersByEmail.put(user.getEmail(), user);
+        usersInOrder.put(user.getEmail(), user);
+        if (user.isPending()) {
+            pendingUsers.put(user.getEmail(), user);
+        } else {
+            pendingUsers.remove(user.getEmail());
+        }
+    }
+
+    private synchronized void applyStatus(User user, User.UserStatus status) {
+        user.setStatus(status);
+        index(user);
+    }
+
+    /**
+     * Sauvegarder tous les utilisateurs : fichier temporaire forcé sur disque puis
+     * renommé atomiquement ; retourne false si users.txt n'a pas été remplacé
+     */
+    private synchronized boolean saveUsers() {
+        File tmp = new File(USERS_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()))) {
+            for (User user : usersInOrder.values()) {
+                writer.write(formatUser(user));
                 writer.newLine();
             }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("❌ Erreur sauvegarde: " + e.getMessage());
+            tmp.delete();
+            return false;
+        }
+
+        try {
+            Files.move(tmp.toPath(), new File(USERS_FILE).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             System.out.println("✅ Utilisateurs sauvegardés");
+            return true;
+        } catch (IOException e) {
+            System.out.println("❌ Erreur sauvegarde: " + e.getMessage());
+            tmp.delete();
+            return false;
+        }
+    }
+
+    private static String formatUser(User user) {
+        return user.getEmail() + ":" +
+                user.getPassword() + ":" +
+                user.getRole().name() + ":" +
+                user.getStatus().name();
+    }
+
+    // Ajouter une ligne à un fichier
+    private static void appendLine(String fileName, String line) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true))) {
+            writer.write(line);
+            writer.newLine();
         } catch (IOException e) {
             System.out.println("❌ Erreur sauvegarde: " + e.getMessage());
         }
     }
 
+    // Réécrire users.txt puis vider le journal (conservé si la réécriture a échoué)
+    private synchronized void compact() {
+        if (!saveUsers()) {
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(CHANGES_FILE))) {
+            writer.write("");
+            changeEntries = 0;
+        } catch (IOException e) {
+            System.out.println("❌ Erreur compactage journal users: " + e.getMessage());
+        }
+    }
+
     // Enregistrer un nouvel utilisateur
-    public boolean registerUser(String email, String password, User.UserRole role) {
+    public synchronized boolean registerUser(String email, String password, User.UserRole role) {
         if (emailExists(email)) {
             System.out.println("❌ Email déjà utilisé");
             return false;
         }
 
         User newUser = new User(email, password, role);
-        users.add(newUser);
-        saveUsers();
+        index(newUser);
+        appendLine(USERS_FILE, formatUser(newUser));
 
         if (role == User.UserRole.CLIENT) {
             System.out.println("✅ Client enregistré: " + email);
@@ -91,84 +209,73 @@ public class UserManager {
 
     // Connexion
     public User login(String email, String password) {
-        for (User user : users) {
-            if (user.getEmail().equals(email) && user.getPassword().equals(password)) {
-                if (user.isPending()) {
-                    System.out.println("⏳ Compte en attente d'approbation");
-                    return null;
-                }
-                if (!user.isApproved()) {
-                    System.out.println("❌ Compte non approuvé");
-                    return null;
-                }
-                System.out.println("✅ Connexion réussie: " + email);
-                return user;
+        User user = usersByEmail.get(email);
+        if (user != null && user.getPassword().equals(password)) {
+            if (user.isPending()) {
+                System.out.println("⏳ Compte en attente d'approbation");
+                return null;
+            }
+            if (!user.isApproved()) {
+                System.out.println("❌ Compte non approuvé");
+                return null;
             }
+            System.out.println("✅ Connexion réussie: " + email);
+            return user;
         }
         System.out.println("❌ Identifiants incorrects");
         return null;
     }
 
     // Obtenir utilisateurs en attente
-    public List<User> getPendingUsers() {
-        List<User> pending = new ArrayList<>();
-        for (User user : users) {
-            if (user.isPending()) {
-                pending.add(user);
-            }
-        }
-        return pending;
+    public synchronized List<User> getPendingUsers() {
+        return new ArrayList<>(pendingUsers.values());
     }
 
     // Approuver un utilisateur
     public boolean approveUser(String email) {
-        for (User user : users) {
-            if (user.getEmail().equals(email)) {
-                user.setStatus(User.UserStatus.APPROVED);
-                saveUsers();
-                System.out.println("✅ Utilisateur approuvé: " + email);
-                return true;
-            }
+        if (!changeStatus(email, User.UserStatus.APPROVED)) {
+            return false;
         }
-        return false;
+        System.out.println("✅ Utilisateur approuvé: " + email);
+        return true;
     }
 
     // Rejeter un utilisateur
     public boolean rejectUser(String email) {
-        for (User user : users) {
-            if (user.getEmail().equals(email)) {
-                user.setStatus(User.UserStatus.REJECTED);
-                saveUsers();
-                System.out.println("❌ Utilisateur rejeté: " + email);
-                return true;
-            }
+        if (!changeStatus(email, User.UserStatus.REJECTED)) {
+            return false;
         }
-        return false;
+        System.out.println("❌ Utilisateur rejeté: " + email);
+        return true;
+    }
+
+    private synchronized boolean changeStatus(String email, User.UserStatus status) {
+        User user = usersByEmail.get(email);
+        if (user == null) {
+            return false;
+        }
+
+        applyStatus(user, status);
+        appendLine(CHANGES_FILE, email + ":" + status.name());
+        if (++changeEntries >= COMPACTION_THRESHOLD) {
+            compact();
+        }
+        return true;
     }
 
     // Vérifier si email existe
     public boolean emailExists(String email) {
-        for (User user : users) {
-            if (user.getEmail().equals(email)) {
-                return true;
-            }
-        }
-        return false;
+        return usersByEmail.containsKey(email);
     }
 
     // Obtenir tous les utilisateurs
-    public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+    public synchronized List<User> getAllUsers() {
+        return new ArrayList<>(usersInOrder.values());
     }
 
     // Obtenir utilisateur par email
     public User getUserByEmail(String email) {
-        for (User user : users) {
-            if (user.getEmail().equals(email)) {
-                return user;
-            }
-        }
-        return null;
+        return usersByEmail.get(email);
     }
 
     // Validation email
@@ -1,7 +1,9 @@
 package com.restaurant.model.menu;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * PATRON COMPOSITION - Composite de la hiérarchie
@@ -10,7 +12,8 @@ import java.util.List;
 public class MenuCategory extends MenuComponent {
     private String name;
     private String description;
-    private List<MenuComponent> components = new ArrayList<>();
+    private final List<MenuComponent> components = new ArrayList<>();
+    private final List<MenuComponent> componentsView = Collections.unmodifiableList(components);
 
     public MenuCategory(String name, String description) {
         this.name = name;
@@ -51,6 +54,19 @@ public class MenuCategory extends MenuComponent {
         return new ArrayList<>(components);
     }
 
+    /**
+     * Vue en lecture seule des sous-composants, sans copie
+     */
+    public List<MenuComponent> getComponentsView() {
+        return componentsView;
+    }
+
+    public void forEachComponent(Consumer<? super MenuComponent> action) {
+        for (int i = 0; i < components.size(); i++) {
+            action.accept(components.get(i));
+        }
+    }
+
     @Override
     public void display(int indent) {
         System.out.println(getIndent(indent) + "📁 " + name + " - " + description);
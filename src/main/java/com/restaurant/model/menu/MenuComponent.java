@@ -18,6 +18,10 @@ public abstract class MenuComponent {
         throw new UnsupportedOperationException();
     }
 
+    public long getPriceCents() {
+        throw new UnsupportedOperationException();
+    }
+
     public void add(MenuComponent component) {
         throw new UnsupportedOperationException();
     }
@@ -5,14 +5,31 @@ package com.restaurant.model.menu;
  * Représente un plat individuel dans le menu
  */
 public class MenuIt extends MenuComponent {
+    private static final int NO_ID = 0;
+
+    private final int id; // Id stable écrit par la persistance (voir MenuRegistry)
     private String name;
     private String description;
-    private double price;
+    // Prix en centimes : les totaux restent exacts quel que soit le nombre de commandes
+    private long priceCents;
 
     public MenuIt(String name, String description, double price) {
+        this(NO_ID, name, description, price);
+    }
+
+    public MenuIt(int id, String name, String description, double price) {
+        this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
+        this.priceCents = Math.round(price * 100);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean hasId() {
+        return id != NO_ID;
     }
 
     @Override
@@ -27,16 +44,21 @@ public class MenuIt extends MenuComponent {
 
     @Override
     public double getPrice() {
-        return price;
+        return priceCents / 100.0;
+    }
+
+    @Override
+    public long getPriceCents() {
+        return priceCents;
     }
 
     @Override
     public void display(int indent) {
-        System.out.println(getIndent(indent) + "→ " + name + " - " + price + " DA - " + description);
+        System.out.println(getIndent(indent) + "→ " + name + " - " + getPrice() + " DA - " + description);
     }
 
     @Override
     public String toString() {
-        return name + " (" + price + " DA)";
+        return name + " (" + getPrice() + " DA)";
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.restaurant.model.menu;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PATRON SINGLETON - Registre des plats du menu par id stable
+ *
+ * La persistance écrit "#id" au lieu du nom ; au chargement, resolve() renvoie
+ * le MenuIt du menu (avec sa description) au lieu d'en créer un par ligne.
+ * Un plat facturé à un autre prix que le prix actuel est interné une seule
+ * fois sous forme de variante historique (même id, même nom, ancien prix).
+ *
+ * Les ids ne doivent jamais être réutilisés ; un plat retiré du menu doit
+ * rester enregistré pour que l'historique garde son nom.
+ */
+public class MenuRegistry {
+    private static volatile MenuRegistry instance;
+    private static final String ID_PREFIX = "#";
+
+    private final Map<Integer, MenuIt> itemsById = new ConcurrentHashMap<>();
+    private final Map<String, MenuIt> itemsByName = new ConcurrentHashMap<>();
+    // Clé "nom|centimes" : plats hors menu ou à un ancien prix
+    private final Map<String, MenuIt> variants = new ConcurrentHashMap<>();
+
+    private MenuRegistry() {
+    }
+
+    public static MenuRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MenuRegistry.class) {
+                if (instance == null) {
+                    instance = new MenuRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Enregistrer tous les plats (avec id) d'un menu ou d'une catégorie
+     */
+    public void registerMenu(MenuComponent component) {
+        if (component instanceof MenuIt) {
+            register((MenuIt) component);
+        } else if (component instanceof MenuCategory) {
+            ((MenuCategory) component).forEachComponent(this::registerMenu);
+        }
+    }
+
+    public void register(MenuIt item) {
+        if (!item.hasId()) {
+            return;
+        }
+        MenuIt previous = itemsById.putIfAbsent(item.getId(), item);
+        if (previous != null && previous != item) {
+            throw new IllegalStateException("Id de plat déjà utilisé: " + item.getId() +
+                    " (" + previous.getName() + ", " + item.getName() + ")");
+        }
+        itemsByName.put(item.getName(), item);
+    }
+
+    public MenuIt findById(int id) {
+        return itemsById.get(id);
+    }
+
+    /**
+     * Référence persistée d'un plat : "#id", ou le nom pour un plat sans id
+     */
+    public String reference(MenuIt item) {
+        return item.hasId() ? ID_PREFIX + item.getId() : item.getName();
+    }
+
+    /**
+     * Retrouver le plat d'une ligne persistée ("#id" ou nom d'un ancien fichier)
+     */
+    public MenuIt resolve(String reference, double price) {
+        return resolve(reference, Math.round(price * 100));
+    }
+
+    public MenuIt resolve(String reference, long priceCents) {
+        double price = priceCents / 100.0;
+        MenuIt item;
+        if (reference.startsWith(ID_PREFIX)) {
+            int id = Integer.parseInt(reference.substring(ID_PREFIX.length()));
+            item = itemsById.get(id);
+            if (item == null) {
+                return intern(id, "Plat " + reference, "", price, priceCents);
+            }
+        } else {
+            item = itemsByName.get(reference);
+            if (item == null) {
+                return intern(0, reference, "", price, priceCents);
+            }
+        }
+        if (item.getPriceCents() == priceCents) {
+            return item;
+        }
+        return intern(item.getId(), item.getName(), item.getDescription(), price, priceCents);
+    }
+
+    private MenuIt intern(int id, String name, String description, double price, long priceCents) {
+        return variants.computeIfAbsent(name + '|' + priceCents,
+                key -> new MenuIt(id, name, description, price));
+    }
+}
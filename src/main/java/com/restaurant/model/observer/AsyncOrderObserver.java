@@ -0,0 +1,175 @@
+package com.restaurant.model.notification;
+
+import com.restaurant.model.order.Order;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PATRON OBSERVATEUR - Décorateur de dispatch asynchrone
+ *
+ * Les événements sont placés dans une file bornée propre à l'observateur et
+ * livrés dans l'ordre par une tâche soumise à l'exécuteur configuré (un
+ * exécuteur de threads virtuels convient). L'appelant de notifyObservers
+ * n'attend donc jamais un observateur lent ; la politique de contre-pression
+ * décide du sort d'un événement quand la file est pleine.
+ */
+public class AsyncOrderObserver implements OrderObserver {
+
+    public enum BackpressurePolicy {
+        DROP,       // File pleine : l'événement est ignoré
+        BLOCK,      // File pleine : l'appelant attend une place
+        COALESCE    // Même (commande, événement) déjà en attente : fusionné ; file pleine : le plus ancien est remplacé
+    }
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "order-observer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class PendingEvent {
+        final Order order;
+        final String event;
+        final String key;
+
+        PendingEvent(Order order, String event) {
+            this.order = order;
+            this.event = event;
+            this.key = order.getOrderId() + ":" + event;
+        }
+    }
+
+    private final OrderObserver delegate;
+    private final Executor executor;
+    private final int capacity;
+    private final BackpressurePolicy policy;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<PendingEvent> queue = new ArrayDeque<>();
+    private final Set<String> pendingKeys = new HashSet<>();
+    private boolean draining;
+    private long droppedEvents;
+
+    public AsyncOrderObserver(OrderObserver delegate, int capacity, BackpressurePolicy policy) {
+        this(delegate, DEFAULT_EXECUTOR, capacity, policy);
+    }
+
+    public AsyncOrderObserver(OrderObserver delegate, Executor executor, int capacity, BackpressurePolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité doit être positive");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    public OrderObserver getDelegate() {
+        return delegate;
+    }
+
+    public long getDroppedEvents() {
+        lock.lock();
+        try {
+            return droppedEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void update(Order order, String event) {
+        PendingEvent pending = new PendingEvent(order, event);
+        boolean startDrain;
+
+        lock.lock();
+        try {
+            if (!enqueue(pending)) {
+                return;
+            }
+            startDrain = !draining;
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+
+        if (startDrain) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Aucune vidange lancée : l'événement reste en file, la prochaine
+                // notification réessaiera ; ne pas propager pour ne pas priver les autres observateurs
+                lock.lock();
+                try {
+                    draining = false;
+                } finally {
+                    lock.unlock();
+                }
+                System.out.println("❌ Erreur observateur " + delegate.getClass().getSimpleName()
+                        + " : vidange refusée (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    // Appelé sous verrou ; retourne false si l'événement n'a pas été mis en file
+    private boolean enqueue(PendingEvent pending) {
+        switch (policy) {
+            case DROP:
+                if (queue.size() >= capacity) {
+                    droppedEvents++;
+                    return false;
+                }
+                break;
+            case BLOCK:
+                while (queue.size() >= capacity) {
+                    notFull.awaitUninterruptibly();
+                }
+                break;
+            case COALESCE:
+                if (pendingKeys.contains(pending.key)) {
+                    // L'observateur lira l'état courant de la commande
+                    return false;
+                }
+                if (queue.size() >= capacity) {
+                    pendingKeys.remove(queue.removeFirst().key);
+                    droppedEvents++;
+                }
+                break;
+        }
+        queue.addLast(pending);
+        pendingKeys.add(pending.key);
+        return true;
+    }
+
+    private void drain() {
+        while (true) {
+            PendingEvent pending;
+            lock.lock();
+            try {
+                pending = queue.pollFirst();
+                if (pending == null) {
+                    draining = false;
+                    return;
+                }
+                pendingKeys.remove(pending.key);
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                delegate.update(pending.order, pending.event);
+            } catch (RuntimeException e) {
+                System.out.println("❌ Erreur observateur " + delegate.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -13,7 +13,7 @@ public class KitchenObserver implements OrderObserver {
         if ("ORDER_VALIDATED".equals(event)) {
             System.out.println("\n🔔 [CUISINE] Nouvelle commande reçue !");
             System.out.println("   Commande #" + order.getOrderId());
-            System.out.println("   Items: " + order.getItems().size());
+            System.out.println("   Items: " + order.getItemCount());
             System.out.println("   Total: " + order.getTotal() + " DA");
             System.out.println("   → Préparation en cours...\n");
         }
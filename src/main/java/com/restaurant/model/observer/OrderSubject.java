@@ -1,24 +1,33 @@
 package com.restaurant.model.notification;
 
 import com.restaurant.model.order.Order;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * PATRON OBSERVATEUR - Classe Subject (Observable)
  * Gère la liste des observateurs et les notifie des changements
+ * Liste copy-on-write : notification possible depuis plusieurs threads
+ * pendant un attach/detach, sans verrou ni ConcurrentModificationException
  */
 public class OrderSubject {
-    private List<OrderObserver> observers = new ArrayList<>();
+    private final CopyOnWriteArrayList<OrderObserver> observers = new CopyOnWriteArrayList<>();
 
     public void attach(OrderObserver observer) {
-        if (!observers.contains(observer)) {
-            observers.add(observer);
-        }
+        observers.addIfAbsent(observer);
+    }
+
+    /**
+     * Attacher un observateur notifié de façon asynchrone (file bornée dédiée)
+     */
+    public void attachAsync(OrderObserver observer, Executor executor, int capacity,
+                            AsyncOrderObserver.BackpressurePolicy policy) {
+        attach(new AsyncOrderObserver(observer, executor, capacity, policy));
     }
 
     public void detach(OrderObserver observer) {
-        observers.remove(observer);
+        observers.removeIf(o -> o == observer ||
+                (o instanceof AsyncOrderObserver && ((AsyncOrderObserver) o).getDelegate() == observer));
     }
 
     public void notifyObservers(Order order, String event) {
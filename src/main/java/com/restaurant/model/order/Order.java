@@ -5,7 +5,10 @@ import com.restaurant.model.payment.PaymentStrategy;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Classe représentant une commande
@@ -18,20 +21,26 @@ public class Order {
         DELIVERED   // En livraison
     }
 
-    private static int orderCounter = 1000;
+    // Atomique : deux prises de commande simultanées n'obtiennent jamais le même id.
+    // Toujours au-delà du plus grand id restauré (voir restore)
+    private static final AtomicInteger orderCounter = new AtomicInteger(1000);
 
     private int orderId;
-    private List<OrderItem> items;
+    private final List<OrderItem> items;
+    private final List<OrderItem> itemsView; // Vue en lecture seule, sans copie
     private LocalDateTime orderTime;
     private LocalDateTime processedTime;
     private PaymentStrategy paymentStrategy;
     private boolean isPaid;
     private String paymentMethod; // "PAID" ou "ONSITE"
     private OrderStatus status;
+    private long totalCents; // Total tenu à jour par addItem/removeItem, en centimes
+    private String clientEmail; // Client connecté au paiement, null pour un invité
 
     public Order() {
-        this.orderId = orderCounter++;
+        this.orderId = orderCounter.getAndIncrement();
         this.items = new ArrayList<>();
+        this.itemsView = Collections.unmodifiableList(items);
         this.orderTime = LocalDateTime.now();
         this.processedTime = null;
         this.isPaid = false;
@@ -39,21 +48,71 @@ public class Order {
         this.status = OrderStatus.PENDING;
     }
 
+    private Order(int orderId, LocalDateTime orderTime) {
+        this.orderId = orderId;
+        this.items = new ArrayList<>();
+        this.itemsView = Collections.unmodifiableList(items);
+        this.orderTime = orderTime;
+        this.paymentMethod = "";
+        this.status = OrderStatus.PENDING;
+    }
+
+    /**
+     * Reconstituer une commande persistée telle quelle (id, dates, paiement),
+     * sans consommer d'id ni rejouer le paiement ; les articles sont ajoutés ensuite
+     */
+    public static Order restore(int orderId, LocalDateTime orderTime, LocalDateTime processedTime,
+                                OrderStatus status, boolean paid, String paymentMethod) {
+        // Les ids restaurés ne doivent jamais être réattribués à une nouvelle commande
+        reserveIdsThrough(orderId);
+        Order order = new Order(orderId, orderTime);
+        order.processedTime = processedTime;
+        order.status = status;
+        order.isPaid = paid;
+        order.paymentMethod = paymentMethod;
+        return order;
+    }
+
+    /**
+     * Ne jamais attribuer d'id inférieur ou égal à orderId (commandes persistées non chargées)
+     */
+    public static void reserveIdsThrough(int orderId) {
+        orderCounter.accumulateAndGet(orderId + 1, Math::max);
+    }
+
+    /**
+     * Réserver un id sans créer de commande (ex: renuméroter un doublon au chargement)
+     */
+    public static int nextOrderId() {
+        return orderCounter.getAndIncrement();
+    }
+
     public void addItem(MenuIt menuItem, int quantity) {
         OrderItem orderItem = new OrderItem(menuItem, quantity);
+        orderItem.setOrder(this);
         items.add(orderItem);
+        totalCents += orderItem.getSubtotalCents();
     }
 
     public void removeItem(int index) {
         if (index >= 0 && index < items.size()) {
-            items.remove(index);
+            OrderItem removed = items.remove(index);
+            removed.setOrder(null);
+            totalCents -= removed.getSubtotalCents();
         }
     }
 
     public double getTotal() {
-        return items.stream()
-                .mapToDouble(item -> item.getMenuItem().getPrice() * item.getQuantity())
-                .sum();
+        return totalCents / 100.0;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    // Appelé par OrderItem.setQuantity
+    void adjustTotal(long deltaCents) {
+        totalCents += deltaCents;
     }
 
     public void setPaymentStrategy(PaymentStrategy strategy) {
@@ -101,10 +160,34 @@ public class Order {
         return orderId;
     }
 
+    /**
+     * Copie des articles, modifiable par l'appelant
+     */
     public List<OrderItem> getItems() {
         return new ArrayList<>(items);
     }
 
+    /**
+     * Vue en lecture seule des articles, sans allocation ; reflète les ajouts et retraits
+     */
+    public List<OrderItem> getItemsView() {
+        return itemsView;
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    public OrderItem getItem(int index) {
+        return items.get(index);
+    }
+
+    public void forEachItem(Consumer<? super OrderItem> action) {
+        for (int i = 0; i < items.size(); i++) {
+            action.accept(items.get(i));
+        }
+    }
+
     public LocalDateTime getOrderTime() {
         return orderTime;
     }
@@ -133,6 +216,18 @@ public class Order {
         return "ONSITE".equals(paymentMethod);
     }
 
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public void setClientEmail(String clientEmail) {
+        this.clientEmail = clientEmail;
+    }
+
+    public boolean hasClient() {
+        return clientEmail != null;
+    }
+
     public OrderStatus getStatus() {
         return status;
     }
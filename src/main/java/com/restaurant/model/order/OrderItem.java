@@ -8,6 +8,7 @@ import com.restaurant.model.menu.MenuIt;
 public class OrderItem {
     private MenuIt menuItem;
     private int quantity;
+    private Order order; // Commande propriétaire, dont le total suit les changements de quantité
 
     public OrderItem(MenuIt menuItem, int quantity) {
         this.menuItem = menuItem;
@@ -23,11 +24,23 @@ public class OrderItem {
     }
 
     public void setQuantity(int quantity) {
+        long previous = getSubtotalCents();
         this.quantity = quantity;
+        if (order != null) {
+            order.adjustTotal(getSubtotalCents() - previous);
+        }
+    }
+
+    void setOrder(Order order) {
+        this.order = order;
     }
 
     public double getSubtotal() {
-        return menuItem.getPrice() * quantity;
+        return getSubtotalCents() / 100.0;
+    }
+
+    public long getSubtotalCents() {
+        return menuItem.getPriceCents() * quantity;
     }
 
     @Override
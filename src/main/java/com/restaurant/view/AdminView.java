@@ -12,10 +12,8 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * VUE - Dashboard administrateur avec gestion des comptes et commandes
@@ -29,8 +27,14 @@ public class AdminView {
     private Label pendingUsersCountLabel;
 
     // Onglet Commandes
-    private ListView<HBox> pendingOrdersListView;
-    private ListView<String> historyListView;
+    private ListView<Order> pendingOrdersListView;
+    private ListView<Order> historyListView;
+    // Historique chargé page par page au défilement
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private long historyCursor = OrderPage.FIRST;
+    private boolean historyHasMore;
+    private boolean historyLoading;
+    private int historyReloads; // Numéro du dernier rechargement demandé
     private Label totalSalesLabel;
     private Label ordersCountLabel;
     private Label popularDishLabel;
@@ -223,6 +227,8 @@ public class AdminView {
         pendingOrdersListView = new ListView<>();
         pendingOrdersListView.setPrefHeight(550);
         pendingOrdersListView.setStyle("-fx-font-size: 12px;");
+        pendingOrdersListView.setPlaceholder(createPlaceholder("Aucune commande en attente"));
+        pendingOrdersListView.setCellFactory(list -> new PendingOrderCell());
 
         panel.getChildren().addAll(title, pendingOrdersListView);
         return panel;
@@ -243,6 +249,8 @@ public class AdminView {
         historyListView = new ListView<>();
         historyListView.setPrefHeight(550);
         historyListView.setStyle("-fx-font-size: 11px; -fx-font-family: 'Courier New';");
+        historyListView.setPlaceholder(createPlaceholder("Aucune commande pour le moment"));
+        historyListView.setCellFactory(list -> new HistoryOrderCell());
 
         panel.getChildren().addAll(title, historyListView);
         return panel;
@@ -342,9 +350,10 @@ public class AdminView {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                UserManager.getInstance().approveUser(user.getEmail());
-                loadPendingUsers();
-                showSuccessAlert("Compte approuvé avec succès !");
+                BackgroundTasks.run(() -> UserManager.getInstance().approveUser(user.getEmail()), () -> {
+                    loadPendingUsers();
+                    showSuccessAlert("Compte approuvé avec succès !");
+                });
             }
         });
     }
@@ -357,142 +366,196 @@ public class AdminView {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                UserManager.getInstance().rejectUser(user.getEmail());
-                loadPendingUsers();
-                showSuccessAlert("Compte rejeté.");
+                BackgroundTasks.run(() -> UserManager.getInstance().rejectUser(user.getEmail()), () -> {
+                    loadPendingUsers();
+                    showSuccessAlert("Compte rejeté.");
+                });
             }
         });
     }
 
     private void loadStatistics() {
-        RestaurantSystem system = RestaurantSystem.getInstance();
-        List<Order> orders = system.getOrders();
+        StatisticsAggregator statistics = RestaurantSystem.getInstance().getStatistics();
 
-        long pendingCount = orders.stream().filter(Order::isPending).count();
+        pendingOrdersCountLabel.setText(String.valueOf(statistics.getPendingCount()));
+        totalSalesLabel.setText(String.format("%.0f DA", statistics.getTotalSales()));
+        ordersCountLabel.setText(String.valueOf(statistics.getPaidCount()));
+        popularDishLabel.setText(statistics.getPopularDish());
+    }
+
+    /**
+     * Recharger commandes en attente et historique hors du thread JavaFX ;
+     * seul le dernier rechargement demandé est affiché
+     */
+    private void loadOrders() {
+        int reload = ++historyReloads;
+        // Recharger autant de pages d'historique que déjà affichées (au moins une)
+        int loaded = Math.max(HISTORY_PAGE_SIZE, historyListView.getItems().size());
+        BackgroundTasks.supply(() -> new LoadedOrders(loaded),
+                result -> {
+                    if (reload != historyReloads) {
+                        return; // Un rechargement plus récent est en cours
+                    }
+                    historyCursor = result.history.getNextCursor();
+                    historyHasMore = result.history.hasMore();
+
+                    // Seules les lignes ajoutées ou retirées sont touchées ; les cellules sont recyclées
+                    ListViews.sync(pendingOrdersListView, result.pendingOrders, Order::getOrderId);
+                    ListViews.sync(historyListView, paidOrders(result.history.getOrders()), Order::getOrderId);
+                });
+    }
 
-        double totalSales = orders.stream()
-                .filter(Order::isPaid)
-                .mapToDouble(Order::getTotal)
-                .sum();
+    /**
+     * Commandes en attente et premières pages de l'historique, lues en arrière-plan
+     */
+    private static class LoadedOrders {
+        private final List<Order> pendingOrders;
+        private final OrderPage history;
+
+        LoadedOrders(int historySize) {
+            RestaurantSystem system = RestaurantSystem.getInstance();
+            pendingOrders = system.getPendingOrders();
+            history = system.findOrders(null, null, OrderPage.FIRST, historySize);
+        }
+    }
 
-        int ordersCount = (int) orders.stream()
-                .filter(Order::isPaid)
-                .count();
+    /**
+     * Page suivante de l'historique, demandée quand la dernière ligne devient visible
+     */
+    private void loadMoreHistory() {
+        if (historyLoading || !historyHasMore) {
+            return;
+        }
+        historyLoading = true;
+        long cursor = historyCursor;
+        BackgroundTasks.supply(
+                () -> RestaurantSystem.getInstance().findOrders(null, null, cursor, HISTORY_PAGE_SIZE),
+                page -> {
+                    historyLoading = false;
+                    if (cursor != historyCursor) {
+                        return; // Historique rechargé entre-temps
+                    }
+                    historyListView.getItems().addAll(paidOrders(page.getOrders()));
+                    historyCursor = page.getNextCursor();
+                    historyHasMore = page.hasMore();
+                },
+                e -> historyLoading = false); // Réessayer au prochain défilement
+    }
 
-        Map<String, Integer> dishCount = new HashMap<>();
+    private List<Order> paidOrders(List<Order> orders) {
+        List<Order> paidOrders = new ArrayList<>();
         for (Order order : orders) {
             if (order.isPaid()) {
-                for (OrderItem item : order.getItems()) {
-                    String dishName = item.getMenuItem().getName();
-                    dishCount.put(dishName, dishCount.getOrDefault(dishName, 0) + item.getQuantity());
-                }
+                paidOrders.add(order);
             }
         }
+        return paidOrders;
+    }
 
-        String popularDish = "Aucun";
-        int maxCount = 0;
-        for (Map.Entry<String, Integer> entry : dishCount.entrySet()) {
-            if (entry.getValue() > maxCount) {
-                maxCount = entry.getValue();
-                popularDish = entry.getKey() + " (" + maxCount + "x)";
+    private Label createPlaceholder(String text) {
+        Label placeholder = new Label(text);
+        placeholder.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
+        placeholder.setPadding(new Insets(20));
+        return placeholder;
+    }
+
+    private String formatItems(Order order) {
+        StringBuilder sb = new StringBuilder();
+        for (OrderItem item : order.getItemsView()) {
+            if (sb.length() > 0) {
+                sb.append("\n");
             }
+            sb.append("  • ").append(item.getQuantity()).append("x ")
+                    .append(item.getMenuItem().getName()).append(" - ")
+                    .append(item.getSubtotal()).append(" DA");
         }
-
-        pendingOrdersCountLabel.setText(String.valueOf(pendingCount));
-        totalSalesLabel.setText(String.format("%.0f DA", totalSales));
-        ordersCountLabel.setText(String.valueOf(ordersCount));
-        popularDishLabel.setText(popularDish);
+        return sb.toString();
     }
 
-    private void loadOrders() {
-        RestaurantSystem system = RestaurantSystem.getInstance();
-        List<Order> allOrders = system.getOrders();
-
-        List<Order> pendingOrders = allOrders.stream()
-                .filter(Order::isPending)
-                .collect(Collectors.toList());
-
-        pendingOrdersListView.getItems().clear();
-
-        if (pendingOrders.isEmpty()) {
-            Label emptyLabel = new Label("Aucune commande en attente");
-            emptyLabel.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-            HBox emptyBox = new HBox(emptyLabel);
-            emptyBox.setAlignment(Pos.CENTER);
-            emptyBox.setPadding(new Insets(20));
-            pendingOrdersListView.getItems().add(emptyBox);
-        } else {
-            for (Order order : pendingOrders) {
-                pendingOrdersListView.getItems().add(createPendingOrderBox(order));
-            }
+    /**
+     * Cellule d'une commande en attente, recyclée par la ListView :
+     * les nœuds sont créés une seule fois, updateItem ne change que textes et action
+     */
+    private class PendingOrderCell extends ListCell<Order> {
+        private final Label headerLabel = new Label();
+        private final Label itemsLabel = new Label();
+        private final Label totalLabel = new Label();
+        private final Button actionButton = new Button();
+        private final HBox container;
+
+        PendingOrderCell() {
+            headerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 13));
+            headerLabel.setTextFill(Color.web("#F7931E"));
+
+            itemsLabel.setFont(Font.font("Arial", 11));
+            itemsLabel.setLineSpacing(3);
+
+            totalLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+            totalLabel.setTextFill(Color.web("#2c3e50"));
+
+            actionButton.setPrefWidth(220);
+
+            HBox buttonsBox = new HBox(10, actionButton);
+            buttonsBox.setAlignment(Pos.CENTER);
+            buttonsBox.setPadding(new Insets(5, 0, 0, 0));
+
+            VBox orderInfo = new VBox(8, headerLabel, itemsLabel, totalLabel, buttonsBox);
+            orderInfo.setPadding(new Insets(12));
+            orderInfo.setStyle("-fx-background-color: #fff8dc; " +
+                    "-fx-background-radius: 8; " +
+                    "-fx-border-color: #F7931E; " +
+                    "-fx-border-width: 2; " +
+                    "-fx-border-radius: 8;");
+
+            container = new HBox(orderInfo);
+            container.setPadding(new Insets(5));
         }
 
-        historyListView.getItems().clear();
+        @Override
+        protected void updateItem(Order order, boolean empty) {
+            super.updateItem(order, empty);
+            if (empty || order == null) {
+                setGraphic(null);
+                return;
+            }
 
-        if (allOrders.isEmpty()) {
-            historyListView.getItems().add("Aucune commande pour le moment");
-        } else {
-            for (Order order : allOrders) {
-                if (order.isPaid()) {
-                    historyListView.getItems().add(formatHistoryOrder(order));
-                    historyListView.getItems().add("─────────────────────────────────────");
-                }
+            headerLabel.setText("⏳ Commande #" + order.getOrderId() + " | " + order.getFormattedTime());
+            itemsLabel.setText(formatItems(order));
+            String paymentInfo = order.isOnsitePayment() ? "[À PAYER SUR PLACE]" : "[PAYÉ]";
+            totalLabel.setText("TOTAL: " + order.getTotal() + " DA " + paymentInfo);
+
+            if (order.isOnsitePayment()) {
+                actionButton.setText("✅ Valider (prêt à récupérer)");
+                actionButton.setStyle("-fx-font-size: 11px; -fx-background-color: #27ae60; " +
+                        "-fx-text-fill: white; -fx-background-radius: 5; -fx-cursor: hand;");
+                actionButton.setOnAction(e -> handleValidateOrder(order));
+            } else {
+                actionButton.setText("🚚 Assigner à la Livraison");
+                actionButton.setStyle("-fx-font-size: 11px; -fx-background-color: #3498db; " +
+                        "-fx-text-fill: white; -fx-background-radius: 5; -fx-cursor: hand;");
+                actionButton.setOnAction(e -> handleDeliverOrder(order));
             }
+            setGraphic(container);
         }
     }
 
-    private HBox createPendingOrderBox(Order order) {
-        VBox orderInfo = new VBox(8);
-        orderInfo.setPadding(new Insets(12));
-        orderInfo.setStyle("-fx-background-color: #fff8dc; " +
-                "-fx-background-radius: 8; " +
-                "-fx-border-color: #F7931E; " +
-                "-fx-border-width: 2; " +
-                "-fx-border-radius: 8;");
-
-        Label headerLabel = new Label("⏳ Commande #" + order.getOrderId() + " | " + order.getFormattedTime());
-        headerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 13));
-        headerLabel.setTextFill(Color.web("#F7931E"));
-
-        VBox itemsBox = new VBox(3);
-        for (OrderItem item : order.getItems()) {
-            Label itemLabel = new Label("  • " + item.getQuantity() + "x " +
-                    item.getMenuItem().getName() + " - " +
-                    item.getSubtotal() + " DA");
-            itemLabel.setFont(Font.font("Arial", 11));
-            itemsBox.getChildren().add(itemLabel);
+    /**
+     * Cellule texte de l'historique ; la bordure basse remplace les lignes séparatrices.
+     * Afficher la dernière ligne déclenche le chargement de la page suivante
+     */
+    private class HistoryOrderCell extends ListCell<Order> {
+        HistoryOrderCell() {
+            setStyle("-fx-border-color: transparent transparent #bdc3c7 transparent; -fx-padding: 6 4 6 4;");
         }
 
-        String paymentInfo = order.isOnsitePayment() ? "[À PAYER SUR PLACE]" : "[PAYÉ]";
-        Label totalLabel = new Label("TOTAL: " + order.getTotal() + " DA " + paymentInfo);
-        totalLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-        totalLabel.setTextFill(Color.web("#2c3e50"));
-
-        HBox buttonsBox = new HBox(10);
-        buttonsBox.setAlignment(Pos.CENTER);
-        buttonsBox.setPadding(new Insets(5, 0, 0, 0));
-
-        if (order.isOnsitePayment()) {
-            Button validateButton = new Button("✅ Valider (prêt à récupérer)");
-            validateButton.setStyle("-fx-font-size: 11px; -fx-background-color: #27ae60; " +
-                    "-fx-text-fill: white; -fx-background-radius: 5; -fx-cursor: hand;");
-            validateButton.setPrefWidth(220);
-            validateButton.setOnAction(e -> handleValidateOrder(order));
-            buttonsBox.getChildren().add(validateButton);
-        } else {
-            Button deliverButton = new Button("🚚 Assigner à la Livraison");
-            deliverButton.setStyle("-fx-font-size: 11px; -fx-background-color: #3498db; " +
-                    "-fx-text-fill: white; -fx-background-radius: 5; -fx-cursor: hand;");
-            deliverButton.setPrefWidth(220);
-            deliverButton.setOnAction(e -> handleDeliverOrder(order));
-            buttonsBox.getChildren().add(deliverButton);
+        @Override
+        protected void updateItem(Order order, boolean empty) {
+            super.updateItem(order, empty);
+            setText(empty || order == null ? null : formatHistoryOrder(order));
+            if (!empty && getIndex() == getListView().getItems().size() - 1) {
+                loadMoreHistory();
+            }
         }
-
-        orderInfo.getChildren().addAll(headerLabel, itemsBox, totalLabel, buttonsBox);
-
-        HBox container = new HBox(orderInfo);
-        container.setPadding(new Insets(5));
-        return container;
     }
 
     private String formatHistoryOrder(Order order) {
@@ -508,7 +571,7 @@ public class AdminView {
         sb.append(statusIcon).append(" Commande #").append(order.getOrderId())
                 .append(" | ").append(order.getFormattedTime()).append("\n");
 
-        for (OrderItem item : order.getItems()) {
+        for (OrderItem item : order.getItemsView()) {
             sb.append("  • ").append(item.getQuantity())
                     .append("x ").append(item.getMenuItem().getName())
                     .append(" - ").append(item.getSubtotal()).append(" DA\n");
@@ -539,11 +602,11 @@ public class AdminView {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                order.validate();
-                OrdersManager.getInstance().saveOrders(RestaurantSystem.getInstance().getOrders());
-                loadStatistics();
-                loadOrders();
-                showSuccessAlert("Commande #" + order.getOrderId() + " validée avec succès !");
+                BackgroundTasks.run(() -> RestaurantSystem.getInstance().validateOrder(order), () -> {
+                    loadStatistics();
+                    loadOrders();
+                    showSuccessAlert("Commande #" + order.getOrderId() + " validée avec succès !");
+                });
             }
         });
     }
@@ -556,18 +619,21 @@ public class AdminView {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                order.assignDelivery();
-                OrdersManager.getInstance().saveOrders(RestaurantSystem.getInstance().getOrders());
-                loadStatistics();
-                loadOrders();
-                showSuccessAlert("Commande #" + order.getOrderId() + " assignée à la livraison !");
+                BackgroundTasks.run(() -> RestaurantSystem.getInstance().assignDelivery(order), () -> {
+                    loadStatistics();
+                    loadOrders();
+                    showSuccessAlert("Commande #" + order.getOrderId() + " assignée à la livraison !");
+                });
             }
         });
     }
 
     private void showNotifications() {
-        List<String> notifications = com.restaurant.model.DeliveryNotificationManager.getInstance().getNotifications();
+        BackgroundTasks.supply(() -> DeliveryNotificationManager.getInstance().getNotifications(),
+                this::showNotifications);
+    }
 
+    private void showNotifications(List<String> notifications) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Notifications de Livraison");
         alert.setHeaderText("📬 Historique des livraisons");
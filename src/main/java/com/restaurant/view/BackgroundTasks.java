@@ -0,0 +1,61 @@
+package com.restaurant.view;
+
+import javafx.application.Platform;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Exécuteur partagé pour les E/S déclenchées par les vues
+ *
+ * Le travail (lecture/écriture de fichiers) s'exécute hors du thread JavaFX ;
+ * la suite, qui touche aux composants graphiques, est ramenée sur ce thread
+ * par Platform.runLater. Projet en Java 17 : threads démons d'un pool ; sur
+ * Java 21, Executors.newVirtualThreadPerTaskExecutor() peut le remplacer.
+ */
+final class BackgroundTasks {
+    private static final ExecutorService IO_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "view-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Calculer une valeur en arrière-plan puis la passer à onFxThread sur le thread JavaFX
+     */
+    static <T> CompletableFuture<T> supply(Supplier<T> work, Consumer<T> onFxThread) {
+        return supply(work, onFxThread, e -> { });
+    }
+
+    /**
+     * Comme supply(work, onFxThread), onFailure étant appelé sur le thread JavaFX en cas d'erreur
+     */
+    static <T> CompletableFuture<T> supply(Supplier<T> work, Consumer<T> onFxThread,
+                                           Consumer<Throwable> onFailure) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(work, IO_EXECUTOR);
+        future.whenComplete((result, e) -> Platform.runLater(() -> {
+            if (e != null) {
+                System.out.println("❌ Erreur en arrière-plan: " + e.getMessage());
+                onFailure.accept(e);
+                return;
+            }
+            onFxThread.accept(result);
+        }));
+        return future;
+    }
+
+    /**
+     * Exécuter une action en arrière-plan puis onFxThread sur le thread JavaFX
+     */
+    static CompletableFuture<Void> run(Runnable work, Runnable onFxThread) {
+        return supply(() -> {
+            work.run();
+            return null;
+        }, result -> onFxThread.run());
+    }
+}
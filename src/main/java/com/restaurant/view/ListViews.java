@@ -0,0 +1,70 @@
+package com.restaurant.view;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListView;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Rafraîchissement des ListView par différence plutôt que clear() + reconstruction
+ *
+ * Seules les lignes disparues sont retirées et les nouvelles insérées ; les
+ * cellules visibles sont ensuite redessinées (refresh) pour refléter un
+ * changement de statut sur un élément resté en place.
+ */
+final class ListViews {
+
+    private ListViews() {
+    }
+
+    /**
+     * Aligner les éléments de la liste sur fresh ; key identifie un élément (ex: id de commande)
+     */
+    static <T, K> void sync(ListView<T> listView, List<T> fresh, Function<T, K> key) {
+        ObservableList<T> items = listView.getItems();
+        if (items.isEmpty() || fresh.isEmpty()) {
+            items.setAll(fresh);
+            return;
+        }
+
+        Set<K> freshKeys = new HashSet<>();
+        for (T item : fresh) {
+            freshKeys.add(key.apply(item));
+        }
+        List<T> removed = new ArrayList<>();
+        for (T item : items) {
+            if (!freshKeys.contains(key.apply(item))) {
+                removed.add(item);
+            }
+        }
+        items.removeAll(removed);
+
+        // Les éléments restants doivent apparaître dans le même ordre que dans fresh
+        int matched = 0;
+        for (T item : fresh) {
+            if (matched < items.size() && Objects.equals(key.apply(items.get(matched)), key.apply(item))) {
+                matched++;
+            }
+        }
+        if (matched != items.size()) {
+            items.setAll(fresh);
+            return;
+        }
+
+        for (int i = 0; i < fresh.size(); i++) {
+            T item = fresh.get(i);
+            if (i < items.size() && Objects.equals(key.apply(items.get(i)), key.apply(item))) {
+                if (items.get(i) != item) {
+                    items.set(i, item);
+                }
+            } else {
+                items.add(i, item);
+            }
+        }
+        listView.refresh();
+    }
+}
@@ -2,7 +2,6 @@ package com.restaurant.view;
 
 import com.restaurant.model.RestaurantSystem;
 import com.restaurant.model.UserSession;
-import com.restaurant.model.OrdersManager;
 import com.restaurant.model.order.Order;
 import com.restaurant.model.order.OrderItem;
 import javafx.geometry.Insets;
@@ -15,7 +14,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * VUE - Interface Livreur
@@ -23,7 +21,7 @@ import java.util.stream.Collectors;
  */
 public class LivreurView {
     private Stage stage;
-    private ListView<HBox> deliveryOrdersListView;
+    private ListView<Order> deliveryOrdersListView;
     private Label assignedCountLabel;
 
     public LivreurView(Stage stage) {
@@ -125,6 +123,11 @@ public class LivreurView {
         deliveryOrdersListView = new ListView<>();
         deliveryOrdersListView.setPrefHeight(450);
         deliveryOrdersListView.setStyle("-fx-font-size: 12px;");
+        Label placeholder = new Label("Aucune commande à livrer pour le moment");
+        placeholder.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
+        placeholder.setPadding(new Insets(20));
+        deliveryOrdersListView.setPlaceholder(placeholder);
+        deliveryOrdersListView.setCellFactory(list -> new DeliveryOrderCell());
 
         ordersPanel.getChildren().addAll(ordersTitle, deliveryOrdersListView);
 
@@ -155,90 +158,97 @@ public class LivreurView {
 
     private void loadOrders() {
         RestaurantSystem system = RestaurantSystem.getInstance();
-        List<Order> allOrders = system.getOrders();
-
-        // Filtrer uniquement les commandes EN LIVRAISON (DELIVERED)
-        List<Order> deliveryOrders = allOrders.stream()
-                .filter(Order::isDelivered)
-                .collect(Collectors.toList());
+        // Uniquement les commandes EN LIVRAISON (DELIVERED)
+        List<Order> deliveryOrders = system.getDeliveryOrders();
 
         // Mettre à jour le compteur
         assignedCountLabel.setText(String.valueOf(deliveryOrders.size()));
 
-        // Afficher les commandes
-        deliveryOrdersListView.getItems().clear();
-
-        if (deliveryOrders.isEmpty()) {
-            Label emptyLabel = new Label("Aucune commande à livrer pour le moment");
-            emptyLabel.setStyle("-fx-text-fill: #95a5a6; -fx-font-style: italic;");
-            HBox emptyBox = new HBox(emptyLabel);
-            emptyBox.setAlignment(Pos.CENTER);
-            emptyBox.setPadding(new Insets(20));
-            deliveryOrdersListView.getItems().add(emptyBox);
-        } else {
-            for (Order order : deliveryOrders) {
-                deliveryOrdersListView.getItems().add(createDeliveryOrderBox(order));
-            }
-        }
+        // Afficher les commandes : différence avec la liste affichée, cellules recyclées
+        ListViews.sync(deliveryOrdersListView, deliveryOrders, Order::getOrderId);
     }
 
-    private HBox createDeliveryOrderBox(Order order) {
-        VBox orderInfo = new VBox(8);
-        orderInfo.setPadding(new Insets(15));
-        orderInfo.setStyle("-fx-background-color: #e3f2fd; " +
-                "-fx-background-radius: 8; " +
-                "-fx-border-color: #3498db; " +
-                "-fx-border-width: 2; " +
-                "-fx-border-radius: 8;");
-
-        // Header
-        Label headerLabel = new Label("🚚 Commande #" + order.getOrderId() + " | " + order.getFormattedTime());
-        headerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
-        headerLabel.setTextFill(Color.web("#3498db"));
-
-        // Status
-        Label statusLabel = new Label(order.getStatusText());
-        statusLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-        statusLabel.setTextFill(Color.web("#27ae60"));
-
-        // Items
-        VBox itemsBox = new VBox(3);
-        itemsBox.setPadding(new Insets(5, 0, 5, 0));
-        for (OrderItem item : order.getItems()) {
-            Label itemLabel = new Label("  • " + item.getQuantity() + "x " +
-                    item.getMenuItem().getName() + " - " +
-                    item.getSubtotal() + " DA");
-            itemLabel.setFont(Font.font("Arial", 11));
-            itemsBox.getChildren().add(itemLabel);
-        }
-
-        // Total
-        String paymentInfo = order.isOnsitePayment() ? "[À PAYER SUR PLACE]" : "[PAYÉ]";
-        Label totalLabel = new Label("TOTAL: " + order.getTotal() + " DA " + paymentInfo);
-        totalLabel.setFont(Font.font("Arial", FontWeight.BOLD, 13));
-        totalLabel.setTextFill(Color.web("#2c3e50"));
-
-        // Date de traitement
-        if (order.getProcessedTime() != null) {
-            Label processedLabel = new Label("Assignée le: " + order.getFormattedProcessedTime());
+    /**
+     * Cellule d'une commande à livrer, recyclée par la ListView :
+     * les nœuds sont créés une seule fois, updateItem ne change que textes et action
+     */
+    private class DeliveryOrderCell extends ListCell<Order> {
+        private final Label headerLabel = new Label();
+        private final Label statusLabel = new Label();
+        private final Label itemsLabel = new Label();
+        private final Label totalLabel = new Label();
+        private final Label processedLabel = new Label();
+        private final Button validateButton = new Button("✅ Marquer comme livrée");
+        private final HBox container;
+
+        DeliveryOrderCell() {
+            headerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+            headerLabel.setTextFill(Color.web("#3498db"));
+
+            statusLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+            statusLabel.setTextFill(Color.web("#27ae60"));
+
+            itemsLabel.setFont(Font.font("Arial", 11));
+            itemsLabel.setLineSpacing(3);
+            itemsLabel.setPadding(new Insets(5, 0, 5, 0));
+
+            totalLabel.setFont(Font.font("Arial", FontWeight.BOLD, 13));
+            totalLabel.setTextFill(Color.web("#2c3e50"));
+
+            // Date de traitement, masquée si absente
             processedLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 10));
             processedLabel.setTextFill(Color.web("#7f8c8d"));
-            orderInfo.getChildren().add(processedLabel);
+            processedLabel.managedProperty().bind(processedLabel.visibleProperty());
+
+            validateButton.setStyle("-fx-font-size: 12px; -fx-background-color: #27ae60; " +
+                    "-fx-text-fill: white; -fx-background-radius: 5; -fx-cursor: hand;");
+            validateButton.setPrefWidth(200);
+
+            VBox orderInfo = new VBox(8, processedLabel, headerLabel, statusLabel, itemsLabel,
+                    totalLabel, validateButton);
+            orderInfo.setPadding(new Insets(15));
+            orderInfo.setStyle("-fx-background-color: #e3f2fd; " +
+                    "-fx-background-radius: 8; " +
+                    "-fx-border-color: #3498db; " +
+                    "-fx-border-width: 2; " +
+                    "-fx-border-radius: 8;");
+
+            container = new HBox(orderInfo);
+            container.setPadding(new Insets(5));
+            HBox.setHgrow(orderInfo, Priority.ALWAYS);
         }
 
-        // Bouton de validation
-        Button validateButton = new Button("✅ Marquer comme livrée");
-        validateButton.setStyle("-fx-font-size: 12px; -fx-background-color: #27ae60; " +
-                "-fx-text-fill: white; -fx-background-radius: 5; -fx-cursor: hand;");
-        validateButton.setPrefWidth(200);
-        validateButton.setOnAction(e -> handleMarkAsDelivered(order));
+        @Override
+        protected void updateItem(Order order, boolean empty) {
+            super.updateItem(order, empty);
+            if (empty || order == null) {
+                setGraphic(null);
+                return;
+            }
+
+            headerLabel.setText("🚚 Commande #" + order.getOrderId() + " | " + order.getFormattedTime());
+            statusLabel.setText(order.getStatusText());
+
+            StringBuilder items = new StringBuilder();
+            for (OrderItem item : order.getItemsView()) {
+                if (items.length() > 0) {
+                    items.append("\n");
+                }
+                items.append("  • ").append(item.getQuantity()).append("x ")
+                        .append(item.getMenuItem().getName()).append(" - ")
+                        .append(item.getSubtotal()).append(" DA");
+            }
+            itemsLabel.setText(items.toString());
+
+            String paymentInfo = order.isOnsitePayment() ? "[À PAYER SUR PLACE]" : "[PAYÉ]";
+            totalLabel.setText("TOTAL: " + order.getTotal() + " DA " + paymentInfo);
 
-        orderInfo.getChildren().addAll(headerLabel, statusLabel, itemsBox, totalLabel, validateButton);
+            processedLabel.setVisible(order.getProcessedTime() != null);
+            processedLabel.setText("Assignée le: " + order.getFormattedProcessedTime());
 
-        HBox container = new HBox(orderInfo);
-        container.setPadding(new Insets(5));
-        HBox.setHgrow(orderInfo, Priority.ALWAYS);
-        return container;
+            validateButton.setOnAction(e -> handleMarkAsDelivered(order));
+            setGraphic(container);
+        }
     }
 
     private void handleMarkAsDelivered(Order order) {
@@ -249,23 +259,23 @@ public class LivreurView {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                // Marquer comme terminée
-                order.setStatus(Order.OrderStatus.VALIDATED);
-
-                // Enregistrer notification pour admin
                 String livreurEmail = UserSession.getInstance().getCurrentEmail();
-                com.restaurant.model.DeliveryNotificationManager.getInstance()
-                        .addNotification(livreurEmail, order.getOrderId());
-
-                System.out.println("🔔 NOTIFICATION: " + livreurEmail +
-                        " a livré la commande #" + order.getOrderId());
-
-                // Sauvegarder
-                OrdersManager.getInstance().saveOrders(RestaurantSystem.getInstance().getOrders());
 
-                showSuccessAlert("Commande #" + order.getOrderId() + " marquée comme livrée !\n" +
-                        "Les admins ont été notifiés.");
-                loadOrders();
+                BackgroundTasks.run(() -> {
+                    // Marquer comme terminée et sauvegarder
+                    RestaurantSystem.getInstance().setOrderStatus(order, Order.OrderStatus.VALIDATED);
+
+                    // Enregistrer notification pour admin
+                    com.restaurant.model.DeliveryNotificationManager.getInstance()
+                            .addNotification(livreurEmail, order.getOrderId());
+
+                    System.out.println("🔔 NOTIFICATION: " + livreurEmail +
+                            " a livré la commande #" + order.getOrderId());
+                }, () -> {
+                    showSuccessAlert("Commande #" + order.getOrderId() + " marquée comme livrée !\n" +
+                            "Les admins ont été notifiés.");
+                    loadOrders();
+                });
             }
         });
     }
@@ -3,8 +3,10 @@ package com.restaurant.view;
 import com.restaurant.controller.RestaurantController;
 import com.restaurant.model.menu.*;
 import com.restaurant.model.order.*;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -142,7 +144,7 @@ public class RestaurantView {
             MenuCategory selected = categoryCombo.getValue();
             if (selected != null) {
                 menuListView.getItems().clear();
-                for (MenuComponent comp : selected.getComponents()) {
+                for (MenuComponent comp : selected.getComponentsView()) {
                     if (comp instanceof MenuIt) {
                         menuListView.getItems().add((MenuIt) comp);
                     }
@@ -425,7 +427,7 @@ public class RestaurantView {
 
         Order currentOrder = controller.getCurrentOrder();
         if (currentOrder != null) {
-            orderListView.getItems().addAll(currentOrder.getItems());
+            orderListView.getItems().addAll(currentOrder.getItemsView());
             totalLabel.setText(String.format("Total: %.2f DA", currentOrder.getTotal()));
         } else {
             totalLabel.setText("Total: 0.00 DA");
@@ -486,20 +488,25 @@ public class RestaurantView {
 
         controller.setPaymentMethod(methodCode, details);
 
-        if (controller.validateAndPayOrder()) {
-            logAction("=== PAIEMENT RÉUSSI ===");
-            logAction("Méthode: " + method);
-            logAction("Notification envoyée à la cuisine");
-            logAction("========================");
+        // Paiement et sauvegardes hors du thread JavaFX ; l'écran est bloqué entre-temps
+        Parent root = stage.getScene().getRoot();
+        root.setDisable(true);
+        BackgroundTasks.supply(controller::validateAndPayOrder, success -> {
+            if (success) {
+                logAction("=== PAIEMENT RÉUSSI ===");
+                logAction("Méthode: " + method);
+                logAction("Notification envoyée à la cuisine");
+                logAction("========================");
 
-            updateOrderDisplay();
-            paymentMethodCombo.setValue(null);
-            paymentFieldsContainer.getChildren().clear();
+                updateOrderDisplay();
+                paymentMethodCombo.setValue(null);
+                paymentFieldsContainer.getChildren().clear();
 
-            showSuccessAlert("Commande validée et payée avec succès!\nLa cuisine a été notifiée.");
-        } else {
-            showAlert("Échec du paiement");
-        }
+                showSuccessAlert("Commande validée et payée avec succès!\nLa cuisine a été notifiée.");
+            } else {
+                showAlert("Échec du paiement");
+            }
+        }).whenComplete((success, e) -> Platform.runLater(() -> root.setDisable(false)));
     }
 
     private void logAction(String message) {